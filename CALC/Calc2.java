@@ -1,5 +1,6 @@
  /* HOW TO COMPILE: javac -Xlint Cal2.java
   * HOW TO RUN: java Calc2	 
+  *             java Calc2 decimal|arbitrary	(exact number modes, see NumericMode)
   */
 
 import java.awt.BorderLayout;
@@ -27,16 +28,8 @@ import javax.swing.JTextArea;
 import javax.swing.KeyStroke;
 
 public class Calc2 extends JFrame implements ActionListener{
-	// Variables
-	final int MAX_INPUT_LENGTH = 20;
-	final int INPUT_MODE = 0;
-	final int RESULT_MODE = 1;
-	final int ERROR_MODE = 2;
-	int displayMode;
-
-	boolean clearOnNextDigit, percent;
-	double lastNumber;
-	String lastOperator;
+	// Keypad state; the display only shows what the engine holds.
+	private final CalcEngine engine;
 
 	private JMenu jmenuFile, jmenuHelp;
 	private JMenuItem jmenuitemExit, jmenuitemAbout;
@@ -56,6 +49,13 @@ public class Calc2 extends JFrame implements ActionListener{
 	// Constructor 
 	public Calc2() 
 	{
+		this(NumericMode.DOUBLE);
+	}
+
+	public Calc2(NumericMode mode)
+	{
+		engine = new CalcEngine(mode);
+
 		/* Set Up the JMenuBar.
 		 * Have Provided All JMenu's with Mnemonics
 		 * Have Provided some JMenuItem components with Keyboard Accelerators
@@ -221,8 +221,6 @@ public class Calc2 extends JFrame implements ActionListener{
 
 	// Perform action
 	public void actionPerformed(ActionEvent e){
-		double result = 0;
-	   
 		if(e.getSource() == jmenuitemAbout){
 		  JDialog dlgAbout = new CustomABOUTDialog(this, 
 								"About Java Swing Calculator", true);
@@ -231,151 +229,14 @@ public class Calc2 extends JFrame implements ActionListener{
 			System.exit(0);
 		}	
 
-		// Search for the button pressed until end of array or key found
+		// Search for the button pressed until end of array or key found;
+		// button i is key i of the engine.
 		for (int i=0; i<jbnButtons.length; i++)
 		{
 			if(e.getSource() == jbnButtons[i])
 			{
-				switch(i)
-				{
-					case 0:
-						addDigitToDisplay(i);
-						break;
-
-					case 1:
-						addDigitToDisplay(i);
-						break;
-
-					case 2:
-						addDigitToDisplay(i);
-						break;
-
-					case 3:
-						addDigitToDisplay(i);
-						break;
-
-					case 4:
-						addDigitToDisplay(i);
-						break;
-
-					case 5:
-						addDigitToDisplay(i);
-						break;
-
-					case 6:
-						addDigitToDisplay(i);
-						break;
-
-					case 7:
-						addDigitToDisplay(i);
-						break;
-
-					case 8:
-						addDigitToDisplay(i);
-						break;
-
-					case 9:
-						addDigitToDisplay(i);
-						break;
-
-					case 10:	// +/-
-						processSignChange();
-						break;
-
-					case 11:	// decimal point
-						addDecimalPoint();
-						break;
-
-					case 12:	// =
-						processEquals();
-						break;
-
-					case 13:	// divide
-						processOperator("/");
-						break;
-
-					case 14:	// *
-						processOperator("*");
-						break;
-
-					case 15:	// -
-						processOperator("-");
-						break;
-
-					case 16:	// +
-						processOperator("+");
-						break;
-
-					case 17:	// sqrt
-						if (displayMode != ERROR_MODE)
-						{
-						   try
-							{
-								if (getDisplayString().indexOf("-") == 0)
-								    displayError("Invalid input for function!");
-
-								result = Math.sqrt(getNumberInDisplay());
-								displayResult(result);
-							}
-
-							catch(Exception ex)
-							{
-								displayError("Invalid input for function!");
-								displayMode = ERROR_MODE;
-							}
-						}
-						break;
-
-					case 18:	// 1/x
-						if (displayMode != ERROR_MODE){
-							try
-							{
-								if (getNumberInDisplay() == 0)
-									displayError("Cannot divide by zero!");
-	
-								result = 1 / getNumberInDisplay();
-								displayResult(result);
-							}
-							
-							catch(Exception ex)	{
-								displayError("Cannot divide by zero!");
-								displayMode = ERROR_MODE;
-							}
-						}
-						break;
-
-					case 19:	// %
-						if (displayMode != ERROR_MODE){
-							try	{
-								result = getNumberInDisplay() / 100;
-								displayResult(result);
-							}
-	
-							catch(Exception ex)	{
-								displayError("Invalid input for function!");
-								displayMode = ERROR_MODE;
-							}
-						}
-						break;
-
-					case 20:	// backspace
-						if (displayMode != ERROR_MODE){
-							setDisplayString(getDisplayString().substring(0,
-									  getDisplayString().length() - 1));
-							
-							if (getDisplayString().length() < 1)
-								setDisplayString("0");
-						}
-						break;
-
-					case 21:	// CE
-						clearExisting();
-						break;
-
-					case 22:	// C
-						clearAll();
-						break;
-				}
+				engine.press(i);
+				setDisplayString(engine.getDisplayString());
 			}
 		}
 	}
@@ -384,175 +245,14 @@ public class Calc2 extends JFrame implements ActionListener{
 		jlbOutput.setText(s);
 	}
 
-	String getDisplayString (){
-		return jlbOutput.getText();
-	}
-
-	void addDigitToDisplay(int digit){
-		if (clearOnNextDigit)
-			setDisplayString("");
-
-		String inputString = getDisplayString();
-		
-		if (inputString.indexOf("0") == 0){
-			inputString = inputString.substring(1);
-		}
-
-		if ((!inputString.equals("0") || digit > 0)  
-							&& inputString.length() < MAX_INPUT_LENGTH){
-			setDisplayString(inputString + digit);
-		}
-		
-
-		displayMode = INPUT_MODE;
-		clearOnNextDigit = false;
-	}
-
-	void addDecimalPoint(){
-		displayMode = INPUT_MODE;
-
-		if (clearOnNextDigit)
-			setDisplayString("");
-
-		String inputString = getDisplayString();
-	
-		// If the input string already contains a decimal point, don't
-		//  do anything to it.
-		if (inputString.indexOf(".") < 0)
-			setDisplayString(new String(inputString + "."));
-	}
-
-	void processSignChange(){
-		if (displayMode == INPUT_MODE)
-		{
-			String input = getDisplayString();
-
-			if (input.length() > 0 && !input.equals("0"))
-			{
-				if (input.indexOf("-") == 0)
-					setDisplayString(input.substring(1));
-
-				else
-					setDisplayString("-" + input);
-			}
-			
-		}
-
-		else if (displayMode == RESULT_MODE)
-		{
-			double numberInDisplay = getNumberInDisplay();
-		
-			if (numberInDisplay != 0)
-				displayResult(-numberInDisplay);
-		}
-	}
-
 	void clearAll()	{
-		setDisplayString("0");
-		lastOperator = "0";
-		lastNumber = 0;
-		displayMode = INPUT_MODE;
-		clearOnNextDigit = true;
-	}
-
-	void clearExisting(){
-		setDisplayString("0");
-		clearOnNextDigit = true;
-		displayMode = INPUT_MODE;
-	}
-
-	double getNumberInDisplay()	{
-		String input = jlbOutput.getText();
-		return Double.parseDouble(input);
-	}
-
-	void processOperator(String op) {
-		if (displayMode != ERROR_MODE)
-		{
-			double numberInDisplay = getNumberInDisplay();
-
-			if (!lastOperator.equals("0"))	
-			{
-				try
-				{
-					double result = processLastOperator();
-					displayResult(result);
-					lastNumber = result;
-				}
-
-				catch (DivideByZeroException e)
-				{
-				}
-			}
-		
-			else
-			{
-				lastNumber = numberInDisplay;
-			}
-			
-			clearOnNextDigit = true;
-			lastOperator = op;
-		}
-	}
-
-	void processEquals(){
-		double result = 0;
-
-		if (displayMode != ERROR_MODE){
-			try			
-			{
-				result = processLastOperator();
-				displayResult(result);
-			}
-			
-			catch (DivideByZeroException e)	{
-				displayError("Cannot divide by zero!");
-			}
-
-			lastOperator = "0";
-		}
-	}
-
-	double processLastOperator() throws DivideByZeroException {
-		double result = 0;
-		double numberInDisplay = getNumberInDisplay();
-
-		if (lastOperator.equals("/"))
-		{
-			if (numberInDisplay == 0)
-				throw (new DivideByZeroException());
-
-			result = lastNumber / numberInDisplay;
-		}
-			
-		if (lastOperator.equals("*"))
-			result = lastNumber * numberInDisplay;
-
-		if (lastOperator.equals("-"))
-			result = lastNumber - numberInDisplay;
-
-		if (lastOperator.equals("+"))
-			result = lastNumber + numberInDisplay;
-
-		return result;
-	}
-
-	void displayResult(double result){
-		setDisplayString(Double.toString(result));
-		lastNumber = result;
-		displayMode = RESULT_MODE;
-		clearOnNextDigit = true;
-	}
-
-	void displayError(String errorMessage){
-		setDisplayString(errorMessage);
-		lastNumber = 0;
-		displayMode = ERROR_MODE;
-		clearOnNextDigit = true;
+		engine.press(CalcEngine.KEY_CLEAR);
+		setDisplayString(engine.getDisplayString());
 	}
 
 	public static void main(String args[]) {
-		Calc2 calci = new Calc2();
+		Calc2 calci = new Calc2(args.length > 0 ? NumericMode.fromName(args[0])
+								: NumericMode.DOUBLE);
 		Container contentPane = calci.getContentPane();
 //		contentPane.setLayout(new BorderLayout());
 		calci.setTitle("Java Swing Calculator");
@@ -565,18 +265,6 @@ public class Calc2 extends JFrame implements ActionListener{
 	
 }		//End of Swing Calculator Class.
 
-class DivideByZeroException extends Exception{
-	public DivideByZeroException()
-	{
-		super();
-	}
-	
-	public DivideByZeroException(String s)
-	{
-		super(s);
-	}
-}
-
 class CustomABOUTDialog extends JDialog implements ActionListener {
 	JButton jbnOk;
 
@@ -0,0 +1,152 @@
+/* Batch mode for the calculator.
+ * Reads one expression per line (see Expression for the syntax),
+ * evaluates the lines in parallel and writes one result per line, in
+ * input order. Lines that cannot be evaluated produce the message the
+ * calculator would show for them.
+ *
+ * HOW TO COMPILE: javac CalcBatch.java
+ * HOW TO RUN: java CalcBatch input.txt output.txt [threads] [cacheSize]
+ *             (use - for standard input or output; a cacheSize above 0
+ *             remembers that many results for repeated expressions)
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+public class CalcBatch {
+	// Lines read and evaluated per chunk, so huge files stream through.
+	static final int CHUNK_SIZE = 1 << 16;
+	// Ranges at most this long are evaluated without splitting further.
+	static final int SPLIT_THRESHOLD = 512;
+
+	// How long a cached result is kept.
+	static final long CACHE_TTL_MINUTES = 10;
+
+	private final ForkJoinPool pool;
+	private final ExpressionCache cache;	// null when not caching
+
+	public CalcBatch(ForkJoinPool pool) {
+		this(pool, null);
+	}
+
+	public CalcBatch(ForkJoinPool pool, ExpressionCache cache) {
+		this.pool = pool;
+		this.cache = cache;
+	}
+
+	// Evaluate every line of in and write the results to out.
+	// Returns the number of lines processed.
+	public long run(BufferedReader in, Writer out) throws IOException {
+		String lines[] = new String[CHUNK_SIZE];
+		String results[] = new String[CHUNK_SIZE];
+		long total = 0;
+
+		for (;;) {
+			int count = 0;
+			String line;
+			while (count < CHUNK_SIZE && (line = in.readLine()) != null)
+				lines[count++] = line;
+			if (count == 0)
+				break;
+
+			pool.invoke(new EvaluateRange(this, lines, results, 0, count));
+			for (int i = 0; i < count; i++) {
+				out.write(results[i]);
+				out.write('\n');
+			}
+			total += count;
+		}
+		out.flush();
+		return total;
+	}
+
+	// Result text for one input line.
+	String evaluateLine(String line) {
+		if (line.trim().length() == 0)
+			return "";
+		try {
+			if (cache != null)
+				return Double.toString(cache.evaluate(line));
+			return Double.toString(Expression.parse(line).evaluate());
+		}
+		catch (DivideByZeroException e) {
+			return "Cannot divide by zero!";
+		}
+		catch (ArithmeticException e) {
+			return "Invalid input for function!";
+		}
+		catch (IllegalArgumentException e) {
+			return "Error: " + e.getMessage();
+		}
+	}
+
+	static final class EvaluateRange extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		final CalcBatch batch;
+		final String lines[], results[];
+		final int from, to;
+
+		EvaluateRange(CalcBatch batch, String lines[], String results[], int from, int to) {
+			this.batch = batch;
+			this.lines = lines;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			if (to - from <= SPLIT_THRESHOLD) {
+				for (int i = from; i < to; i++)
+					results[i] = batch.evaluateLine(lines[i]);
+			}
+			else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new EvaluateRange(batch, lines, results, from, middle),
+						new EvaluateRange(batch, lines, results, middle, to));
+			}
+		}
+	}
+
+	public static void main(String args[]) throws IOException {
+		if (args.length < 2) {
+			System.err.println("usage: java CalcBatch input output [threads] [cacheSize]");
+			System.exit(2);
+		}
+		int threads = args.length > 2 ? Integer.parseInt(args[2])
+				: Runtime.getRuntime().availableProcessors();
+		int cacheSize = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+		ExpressionCache cache = cacheSize > 0
+				? new ExpressionCache(cacheSize, CACHE_TTL_MINUTES, TimeUnit.MINUTES)
+				: null;
+
+		BufferedReader in = args[0].equals("-")
+				? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+				: Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8);
+		Writer out = args[1].equals("-")
+				? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+				: Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8);
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			new CalcBatch(pool, cache).run(in, out);
+		}
+		finally {
+			pool.shutdown();
+			in.close();
+			out.close();
+		}
+		if (cache != null)
+			System.err.println(cache);
+	}
+}
@@ -0,0 +1,87 @@
+/* Scaling benchmark for CalcBatch.
+ * Writes a file of random expressions, then runs the batch with 1, 2,
+ * 4, ... threads up to the number of cores and reports lines/sec.
+ * Then runs a workload that repeats a few thousand distinct expressions
+ * with and without an ExpressionCache.
+ *
+ * HOW TO COMPILE: javac CalcBatchBench.java
+ * HOW TO RUN: java CalcBatchBench [lines]
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+public class CalcBatchBench {
+
+	static long time(Path input, Path output, int threads) throws IOException {
+		return time(input, output, threads, null);
+	}
+
+	static long time(Path input, Path output, int threads, ExpressionCache cache)
+			throws IOException {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		long begin = System.nanoTime();
+		try (BufferedReader in = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+				Writer out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+			new CalcBatch(pool, cache).run(in, out);
+		}
+		finally {
+			pool.shutdown();
+		}
+		return System.nanoTime() - begin;
+	}
+
+	public static void main(String args[]) throws IOException {
+		int lines = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+		Path input = Files.createTempFile("calc", ".in");
+		Path output = Files.createTempFile("calc", ".out");
+		Random random = new Random(42);
+		try (BufferedWriter writer = Files.newBufferedWriter(input, StandardCharsets.UTF_8)) {
+			for (int i = 0; i < lines; i++) {
+				writer.write(ExpressionBench.randomExpression(random, 4));
+				writer.newLine();
+			}
+		}
+
+		int cores = Runtime.getRuntime().availableProcessors();
+		time(input, output, cores);	// warm up
+		double single = 0;
+		for (int threads = 1; threads <= cores; threads *= 2) {
+			long elapsed = time(input, output, threads);
+			double rate = lines / (elapsed / 1e9);
+			if (threads == 1)
+				single = rate;
+			System.out.printf("%2d threads: %,12.0f lines/sec (%.2fx)%n",
+					threads, rate, rate / single);
+		}
+
+		String distinct[] = new String[4096];
+		for (int i = 0; i < distinct.length; i++)
+			distinct[i] = ExpressionBench.randomExpression(random, 6);
+		try (BufferedWriter writer = Files.newBufferedWriter(input, StandardCharsets.UTF_8)) {
+			for (int i = 0; i < lines; i++) {
+				writer.write(distinct[random.nextInt(distinct.length)]);
+				writer.newLine();
+			}
+		}
+		ExpressionCache cache = new ExpressionCache(distinct.length, 10, TimeUnit.MINUTES);
+		time(input, output, cores, cache);	// warm up, fills the cache
+		double uncached = lines / (time(input, output, cores) / 1e9);
+		double cached = lines / (time(input, output, cores, cache) / 1e9);
+		System.out.printf("repeated expressions: %,12.0f lines/sec uncached, "
+				+ "%,12.0f lines/sec cached (%.2fx), %s%n",
+				uncached, cached, cached / uncached, cache);
+
+		Files.delete(input);
+		Files.delete(output);
+	}
+}
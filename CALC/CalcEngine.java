@@ -0,0 +1,353 @@
+/* Headless state machine behind the Calc2 keypad.
+ * Keys are numbered like the Calc2 buttons. The number being typed is
+ * kept in a NumberInput and results as doubles, so pressing keys never
+ * builds strings; text is only made when getDisplayString() is called.
+ *
+ * In the DECIMAL and ARBITRARY modes results are kept as Decimal values
+ * instead, and the typed digits are taken over exactly.
+ */
+
+public class CalcEngine {
+	// Keys, numbered like the Calc2 buttons. Digits 0-9 are their own key.
+	static final int KEY_SIGN = 10;
+	static final int KEY_POINT = 11;
+	static final int KEY_EQUALS = 12;
+	static final int KEY_DIVIDE = 13;
+	static final int KEY_MULTIPLY = 14;
+	static final int KEY_SUBTRACT = 15;
+	static final int KEY_ADD = 16;
+	static final int KEY_SQRT = 17;
+	static final int KEY_RECIPROCAL = 18;
+	static final int KEY_PERCENT = 19;
+	static final int KEY_BACKSPACE = 20;
+	static final int KEY_CLEAR_ENTRY = 21;
+	static final int KEY_CLEAR = 22;
+	static final int KEY_COUNT = 23;
+
+	static final int INPUT_MODE = 0;
+	static final int RESULT_MODE = 1;
+	static final int ERROR_MODE = 2;
+
+	// lastOperator when no operator is pending
+	static final char NO_OPERATOR = '0';
+
+	final NumericMode mode;
+	int displayMode;
+	boolean clearOnNextDigit;
+	double lastNumber;
+	char lastOperator;
+
+	private final NumberInput input = new NumberInput();
+	private double result;			// shown in RESULT_MODE
+	private String errorMessage;		// shown in ERROR_MODE
+
+	// lastNumber and result when mode is not DOUBLE
+	private Decimal exactLastNumber, exactResult;
+
+	public CalcEngine() {
+		this(NumericMode.DOUBLE);
+	}
+
+	public CalcEngine(NumericMode mode) {
+		this.mode = mode;
+		clearAll();
+	}
+
+	// Apply one key press.
+	public void press(int key) {
+		switch (key) {
+			case 0: case 1: case 2: case 3: case 4:
+			case 5: case 6: case 7: case 8: case 9:
+				addDigit(key);
+				break;
+
+			case KEY_SIGN:
+				processSignChange();
+				break;
+
+			case KEY_POINT:
+				addDecimalPoint();
+				break;
+
+			case KEY_EQUALS:
+				processEquals();
+				break;
+
+			case KEY_DIVIDE:
+				processOperator('/');
+				break;
+
+			case KEY_MULTIPLY:
+				processOperator('*');
+				break;
+
+			case KEY_SUBTRACT:
+				processOperator('-');
+				break;
+
+			case KEY_ADD:
+				processOperator('+');
+				break;
+
+			case KEY_SQRT:
+			case KEY_RECIPROCAL:
+			case KEY_PERCENT:
+				if (displayMode != ERROR_MODE) {
+					if (mode == NumericMode.DOUBLE)
+						processFunction(key);
+					else
+						processExactFunction(key);
+				}
+				break;
+
+			case KEY_BACKSPACE:
+				// Only typed input can be edited; results are left alone.
+				if (displayMode == INPUT_MODE)
+					input.backspace();
+				break;
+
+			case KEY_CLEAR_ENTRY:
+				clearExisting();
+				break;
+
+			case KEY_CLEAR:
+				clearAll();
+				break;
+
+			default:
+				throw new IllegalArgumentException("Unknown key " + key);
+		}
+	}
+
+	// Text the calculator display shows.
+	public String getDisplayString() {
+		if (displayMode == RESULT_MODE)
+			return mode == NumericMode.DOUBLE ? Double.toString(result)
+					: exactResult.toString();
+		if (displayMode == ERROR_MODE)
+			return errorMessage;
+		return input.toString();
+	}
+
+	// Number the calculator display shows; NaN while an error is shown.
+	public double getNumberInDisplay() {
+		if (displayMode == RESULT_MODE)
+			return mode == NumericMode.DOUBLE ? result : exactResult.doubleValue();
+		if (displayMode == ERROR_MODE)
+			return Double.NaN;
+		return input.value();
+	}
+
+	// Exact number the display shows; only valid outside ERROR_MODE.
+	Decimal getExactNumberInDisplay() {
+		if (displayMode == RESULT_MODE)
+			return exactResult;
+		long mantissa = input.getMantissa();
+		return Decimal.valueOf(input.isNegative() ? -mantissa : mantissa,
+				input.getScale());
+	}
+
+	void addDigit(int digit) {
+		if (clearOnNextDigit)
+			input.clear();
+
+		input.addDigit(digit);
+		displayMode = INPUT_MODE;
+		clearOnNextDigit = false;
+	}
+
+	void addDecimalPoint() {
+		if (clearOnNextDigit)
+			input.clear();
+
+		input.addDecimalPoint();
+		displayMode = INPUT_MODE;
+		clearOnNextDigit = false;
+	}
+
+	void processSignChange() {
+		if (displayMode == INPUT_MODE)
+			input.toggleSign();
+
+		else if (displayMode == RESULT_MODE) {
+			if (mode != NumericMode.DOUBLE) {
+				if (exactResult.signum() != 0)
+					displayResult(exactResult.negate());
+			}
+			else if (result != 0)
+				displayResult(-result);
+		}
+	}
+
+	void clearAll() {
+		input.clear();
+		lastOperator = NO_OPERATOR;
+		lastNumber = 0;
+		exactLastNumber = Decimal.ZERO;
+		displayMode = INPUT_MODE;
+		clearOnNextDigit = true;
+	}
+
+	void clearExisting() {
+		input.clear();
+		clearOnNextDigit = true;
+		displayMode = INPUT_MODE;
+	}
+
+	void processOperator(char op) {
+		if (displayMode != ERROR_MODE) {
+			if (lastOperator != NO_OPERATOR) {
+				try {
+					if (mode == NumericMode.DOUBLE)
+						displayResult(processLastOperator());
+					else
+						displayResult(processLastExactOperator());
+				}
+
+				catch (DivideByZeroException e) {
+				}
+			}
+
+			else if (mode == NumericMode.DOUBLE) {
+				lastNumber = getNumberInDisplay();
+			}
+
+			else {
+				exactLastNumber = getExactNumberInDisplay();
+			}
+
+			clearOnNextDigit = true;
+			lastOperator = op;
+		}
+	}
+
+	void processEquals() {
+		if (displayMode != ERROR_MODE) {
+			try {
+				if (mode == NumericMode.DOUBLE)
+					displayResult(processLastOperator());
+				else
+					displayResult(processLastExactOperator());
+			}
+
+			catch (DivideByZeroException e) {
+				displayError("Cannot divide by zero!");
+			}
+
+			lastOperator = NO_OPERATOR;
+		}
+	}
+
+	double processLastOperator() throws DivideByZeroException {
+		double numberInDisplay = getNumberInDisplay();
+
+		switch (lastOperator) {
+			case '/':
+				if (numberInDisplay == 0)
+					throw DIVIDE_BY_ZERO;
+				return lastNumber / numberInDisplay;
+
+			case '*':
+				return lastNumber * numberInDisplay;
+
+			case '-':
+				return lastNumber - numberInDisplay;
+
+			case '+':
+				return lastNumber + numberInDisplay;
+
+			default:
+				return 0;
+		}
+	}
+
+	Decimal processLastExactOperator() throws DivideByZeroException {
+		Decimal numberInDisplay = getExactNumberInDisplay();
+
+		switch (lastOperator) {
+			case '/':
+				return exactLastNumber.divide(numberInDisplay, mode);
+
+			case '*':
+				return exactLastNumber.multiply(numberInDisplay, mode);
+
+			case '-':
+				return exactLastNumber.subtract(numberInDisplay, mode);
+
+			case '+':
+				return exactLastNumber.add(numberInDisplay, mode);
+
+			default:
+				return Decimal.ZERO;
+		}
+	}
+
+	// sqrt, 1/x and % in DOUBLE mode
+	void processFunction(int key) {
+		double number = getNumberInDisplay();
+
+		if (key == KEY_SQRT) {
+			if (number < 0)
+				displayError("Invalid input for function!");
+			else
+				displayResult(Math.sqrt(number));
+		}
+		else if (key == KEY_RECIPROCAL) {
+			if (number == 0)
+				displayError("Cannot divide by zero!");
+			else
+				displayResult(1 / number);
+		}
+		else
+			displayResult(number / 100);
+	}
+
+	// sqrt, 1/x and % in the exact modes
+	void processExactFunction(int key) {
+		Decimal number = getExactNumberInDisplay();
+
+		try {
+			if (key == KEY_SQRT)
+				displayResult(number.sqrt(mode));
+			else if (key == KEY_RECIPROCAL)
+				displayResult(number.reciprocal(mode));
+			else
+				displayResult(number.percent());
+		}
+
+		catch (DivideByZeroException e) {
+			displayError("Cannot divide by zero!");
+		}
+
+		catch (ArithmeticException e) {
+			displayError("Invalid input for function!");
+		}
+	}
+
+	void displayResult(Decimal result) {
+		exactResult = result;
+		exactLastNumber = result;
+		displayMode = RESULT_MODE;
+		clearOnNextDigit = true;
+	}
+
+	void displayResult(double result) {
+		this.result = result;
+		lastNumber = result;
+		displayMode = RESULT_MODE;
+		clearOnNextDigit = true;
+	}
+
+	void displayError(String errorMessage) {
+		this.errorMessage = errorMessage;
+		lastNumber = 0;
+		exactLastNumber = Decimal.ZERO;
+		displayMode = ERROR_MODE;
+		clearOnNextDigit = true;
+	}
+
+	// Shared instance: it is only used for control flow, so its stack
+	// trace is never needed and throwing it allocates nothing.
+	private static final DivideByZeroException DIVIDE_BY_ZERO =
+			new DivideByZeroException("Cannot divide by zero!");
+}
@@ -0,0 +1,81 @@
+/* Key replay benchmark for CalcEngine.
+ * Replays a recorded-like stream of key presses through the engine and
+ * reports keys/sec and the bytes allocated per key, measured with the
+ * HotSpot per-thread allocation counter.
+ *
+ * HOW TO COMPILE: javac CalcKeyReplayBench.java
+ * HOW TO RUN: java CalcKeyReplayBench [keys]
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+public class CalcKeyReplayBench {
+
+	// Build a key stream that looks like someone using the keypad:
+	// mostly digits, with operators, functions and corrections mixed in.
+	static byte[] recordKeys(int count, long seed) {
+		Random random = new Random(seed);
+		byte keys[] = new byte[count];
+		for (int i = 0; i < count; i++) {
+			int roll = random.nextInt(100);
+			int key;
+			if (roll < 60)
+				key = random.nextInt(10);
+			else if (roll < 63)
+				key = CalcEngine.KEY_POINT;
+			else if (roll < 65)
+				key = CalcEngine.KEY_SIGN;
+			else if (roll < 85)
+				key = CalcEngine.KEY_DIVIDE + random.nextInt(4);
+			else if (roll < 90)
+				key = CalcEngine.KEY_EQUALS;
+			else if (roll < 94)
+				key = CalcEngine.KEY_SQRT + random.nextInt(3);
+			else if (roll < 98)
+				key = CalcEngine.KEY_BACKSPACE;
+			else
+				key = CalcEngine.KEY_CLEAR_ENTRY + random.nextInt(2);
+			keys[i] = (byte) key;
+		}
+		return keys;
+	}
+
+	static long allocatedBytes() {
+		com.sun.management.ThreadMXBean threads =
+				(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	static double replay(CalcEngine engine, byte keys[], long count) {
+		double checksum = 0;
+		int pos = 0;
+		for (long n = 0; n < count; n++) {
+			engine.press(keys[pos]);
+			if (++pos == keys.length) {
+				pos = 0;
+				checksum += engine.lastNumber;
+			}
+		}
+		return checksum;
+	}
+
+	public static void main(String args[]) {
+		long count = args.length > 0 ? Long.parseLong(args[0]) : 100000000L;
+		byte keys[] = recordKeys(1 << 20, 42);
+		CalcEngine engine = new CalcEngine();
+
+		replay(engine, keys, Math.min(count, 10000000L));	// warm up
+
+		long bytesBefore = allocatedBytes();
+		long begin = System.nanoTime();
+		double checksum = replay(engine, keys, count);
+		long elapsed = System.nanoTime() - begin;
+		long allocated = allocatedBytes() - bytesBefore;
+
+		System.out.printf("replayed %,d keys: %,.0f keys/sec, %,d bytes allocated "
+				+ "(%.6f bytes/key), checksum %g%n", count,
+				count / (elapsed / 1e9), allocated, (double) allocated / count,
+				checksum);
+	}
+}
@@ -4,6 +4,7 @@
  * AUTHOR: Robbie Marcelo
  * HOW TO COMPILE: javac -Xlint Calculator1.java
  * HOW TO RUN: java Calculator1	 
+ *             java Calculator1 decimal|arbitrary (exact number modes, see NumericMode)
  */
 
 import javax.swing.*;
@@ -14,11 +15,18 @@ public class Calculator1 extends JPanel implements ActionListener {
   private JTextField display = new JTextField("0");
   private String buttonText = "789/456*123-0.=+";
   private double result = 0;
+  private Decimal exactResult = Decimal.ZERO;  // result when mode is not DOUBLE
+  private final NumericMode mode;
   private String operator = "=";
   private boolean calculating = true;
   Font font2 = new Font("Verdana", Font.BOLD,24);
 	
   public Calculator1() {
+    this(NumericMode.DOUBLE);
+  }
+
+  public Calculator1(NumericMode mode) {
+    this.mode = mode;
     setLayout(new BorderLayout());
 
     display.setEditable(false);
@@ -57,8 +65,10 @@ public class Calculator1 extends JPanel implements ActionListener {
         } else
           operator = cmd;
       } else {
-        double x = Double.parseDouble(display.getText());
-        calculate(x);
+        if (mode == NumericMode.DOUBLE)
+          calculate(Double.parseDouble(display.getText()));
+        else
+          calculate(Decimal.valueOf(display.getText()));
         operator = cmd;
         calculating = true;
       }
@@ -79,6 +89,25 @@ public class Calculator1 extends JPanel implements ActionListener {
     display.setText("" + result);
   }
 
+  private void calculate(Decimal n) {
+    try {
+      if (operator.equals("+"))
+        exactResult = exactResult.add(n, mode);
+      else if (operator.equals("-"))
+        exactResult = exactResult.subtract(n, mode);
+      else if (operator.equals("*"))
+        exactResult = exactResult.multiply(n, mode);
+      else if (operator.equals("/"))
+        exactResult = exactResult.divide(n, mode);
+      else if (operator.equals("="))
+        exactResult = n;
+      display.setText(exactResult.toString());
+    } catch (DivideByZeroException e) {
+      exactResult = Decimal.ZERO;
+      display.setText("Cannot divide by zero!");
+    }
+  }
+
   public static void main(String[] args) {
     JFrame frame = new JFrame();
     frame.setTitle("Calculator");
@@ -91,7 +120,8 @@ public class Calculator1 extends JPanel implements ActionListener {
     });
 
     Container contentPane = frame.getContentPane();
-    contentPane.add(new Calculator1());
+    contentPane.add(new Calculator1(args.length > 0
+        ? NumericMode.fromName(args[0]) : NumericMode.DOUBLE));
     frame.show();
   }
 }
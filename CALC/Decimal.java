@@ -0,0 +1,216 @@
+/* Exact decimal number for the DECIMAL and ARBITRARY calculator modes.
+ * A value whose digits fit in a long is kept as a long plus a decimal
+ * scale, and arithmetic on such values stays in long arithmetic as long
+ * as the result is exact and fits; only then does it fall back to
+ * BigDecimal. Values are immutable.
+ */
+
+import java.math.BigDecimal;
+
+public final class Decimal {
+	// Largest scale of the long form; 10^MAX_SCALE still fits a long.
+	static final int MAX_SCALE = 18;
+
+	private static final long LONG_POW10[] = new long[MAX_SCALE + 1];
+	private static final double DOUBLE_POW10[] = new double[MAX_SCALE + 1];
+	private static final long EXACT_DOUBLE_LIMIT = 1L << 53;
+	// Largest long whose square fits a long.
+	private static final long MAX_LONG_ROOT = 3037000499L;
+
+	static {
+		LONG_POW10[0] = 1;
+		DOUBLE_POW10[0] = 1;
+		for (int i = 1; i <= MAX_SCALE; i++) {
+			LONG_POW10[i] = LONG_POW10[i - 1] * 10;
+			DOUBLE_POW10[i] = LONG_POW10[i];
+		}
+	}
+
+	public static final Decimal ZERO = new Decimal(0, 0, null);
+	public static final Decimal ONE = new Decimal(1, 0, null);
+
+	private final long unscaled;	// value * 10^scale, if big == null
+	private final int scale;
+	private final BigDecimal big;	// value, if it does not fit the long form
+
+	private Decimal(long unscaled, int scale, BigDecimal big) {
+		this.unscaled = unscaled;
+		this.scale = scale;
+		this.big = big;
+	}
+
+	// unscaled / 10^scale, with 0 <= scale <= MAX_SCALE
+	public static Decimal valueOf(long unscaled, int scale) {
+		if (scale < 0 || scale > MAX_SCALE)
+			return valueOf(BigDecimal.valueOf(unscaled, scale));
+		return compact(unscaled, scale);
+	}
+
+	public static Decimal valueOf(BigDecimal value) {
+		if (value.scale() < 0)
+			value = value.setScale(0);
+		if (value.scale() <= MAX_SCALE && value.unscaledValue().bitLength() < 64)
+			return compact(value.unscaledValue().longValue(), value.scale());
+		return new Decimal(0, 0, value);
+	}
+
+	public static Decimal valueOf(String text) {
+		return valueOf(new BigDecimal(text));
+	}
+
+	// Exact decimal form of the shortest text that reads back as value.
+	public static Decimal valueOf(double value) {
+		return valueOf(BigDecimal.valueOf(value));
+	}
+
+	// Long form without trailing fraction zeros, so scales stay small.
+	private static Decimal compact(long unscaled, int scale) {
+		while (scale > 0 && unscaled % 10 == 0) {
+			unscaled /= 10;
+			scale--;
+		}
+		if (unscaled == 0)
+			return ZERO;
+		return new Decimal(unscaled, scale, null);
+	}
+
+	private static Decimal fromBig(BigDecimal value, NumericMode mode) {
+		if (mode.roundsEveryResult)
+			value = value.round(mode.context);
+		return valueOf(value);
+	}
+
+	public Decimal add(Decimal other, NumericMode mode) {
+		if (big == null && other.big == null) {
+			try {
+				int s = Math.max(scale, other.scale);
+				long a = Math.multiplyExact(unscaled, LONG_POW10[s - scale]);
+				long b = Math.multiplyExact(other.unscaled, LONG_POW10[s - other.scale]);
+				return compact(Math.addExact(a, b), s);
+			}
+			catch (ArithmeticException overflow) {
+			}
+		}
+		return fromBig(toBigDecimal().add(other.toBigDecimal()), mode);
+	}
+
+	public Decimal subtract(Decimal other, NumericMode mode) {
+		return add(other.negate(), mode);
+	}
+
+	public Decimal multiply(Decimal other, NumericMode mode) {
+		if (big == null && other.big == null && scale + other.scale <= MAX_SCALE) {
+			try {
+				return compact(Math.multiplyExact(unscaled, other.unscaled),
+						scale + other.scale);
+			}
+			catch (ArithmeticException overflow) {
+			}
+		}
+		return fromBig(toBigDecimal().multiply(other.toBigDecimal()), mode);
+	}
+
+	// Exact when the quotient has a short decimal expansion, otherwise
+	// rounded to the precision of mode.
+	public Decimal divide(Decimal other, NumericMode mode) throws DivideByZeroException {
+		if (other.signum() == 0)
+			throw new DivideByZeroException("Cannot divide by zero!");
+
+		if (big == null && other.big == null) {
+			// this / other = (unscaled * 10^k / other.unscaled) * 10^-(scale + k - other.scale)
+			long dividend = unscaled;
+			for (int k = 0; k <= MAX_SCALE; k++) {
+				// MIN_VALUE / -1 overflows; leave it to BigDecimal.
+				if (dividend == Long.MIN_VALUE && other.unscaled == -1)
+					break;
+				if (dividend % other.unscaled == 0) {
+					long quotient = dividend / other.unscaled;
+					int s = scale + k - other.scale;
+					if (s >= 0 && s <= MAX_SCALE)
+						return compact(quotient, s);
+					if (s < 0 && -s <= MAX_SCALE) {
+						try {
+							return compact(Math.multiplyExact(quotient, LONG_POW10[-s]), 0);
+						}
+						catch (ArithmeticException overflow) {
+						}
+					}
+					break;
+				}
+				if (dividend > Long.MAX_VALUE / 10 || dividend < Long.MIN_VALUE / 10)
+					break;
+				dividend *= 10;
+			}
+		}
+		return fromBig(toBigDecimal().divide(other.toBigDecimal(), mode.context)
+				.stripTrailingZeros(), mode);
+	}
+
+	public Decimal sqrt(NumericMode mode) {
+		if (signum() < 0)
+			throw new ArithmeticException("Invalid input for function!");
+
+		if (big == null) {
+			long n = unscaled;
+			int s = scale;
+			if (s % 2 == 1 && Math.abs(n) <= Long.MAX_VALUE / 10) {
+				n *= 10;
+				s++;
+			}
+			if (s % 2 == 0) {
+				long root = Math.min((long) Math.sqrt((double) n), MAX_LONG_ROOT);
+				while (root * root > n)
+					root--;
+				while (root < MAX_LONG_ROOT && (root + 1) * (root + 1) <= n)
+					root++;
+				if (root * root == n)
+					return compact(root, s / 2);
+			}
+		}
+		return fromBig(toBigDecimal().sqrt(mode.context).stripTrailingZeros(), mode);
+	}
+
+	public Decimal reciprocal(NumericMode mode) throws DivideByZeroException {
+		return ONE.divide(this, mode);
+	}
+
+	// value / 100
+	public Decimal percent() {
+		if (big == null && scale + 2 <= MAX_SCALE)
+			return compact(unscaled, scale + 2);
+		return valueOf(toBigDecimal().movePointLeft(2));
+	}
+
+	public Decimal negate() {
+		if (big == null && unscaled != Long.MIN_VALUE)
+			return new Decimal(-unscaled, scale, null);
+		return valueOf(toBigDecimal().negate());
+	}
+
+	public int signum() {
+		return big == null ? Long.signum(unscaled) : big.signum();
+	}
+
+	public BigDecimal toBigDecimal() {
+		return big == null ? BigDecimal.valueOf(unscaled, scale) : big;
+	}
+
+	public double doubleValue() {
+		if (big == null && Math.abs(unscaled) < EXACT_DOUBLE_LIMIT)
+			return unscaled / DOUBLE_POW10[scale];
+		return toBigDecimal().doubleValue();
+	}
+
+	public boolean equals(Object other) {
+		return other instanceof Decimal
+				&& toBigDecimal().compareTo(((Decimal) other).toBigDecimal()) == 0;
+	}
+
+	public int hashCode() {
+		return toBigDecimal().stripTrailingZeros().hashCode();
+	}
+
+	public String toString() {
+		return toBigDecimal().toPlainString();
+	}
+}
@@ -0,0 +1,78 @@
+/* Exact decimal benchmark: Decimal (long fast path) against plain
+ * BigDecimal, on a money sheet of price * quantity lines plus a 7.75%
+ * tax, all exact.
+ *
+ * HOW TO COMPILE: javac DecimalBench.java
+ * HOW TO RUN: java DecimalBench [lines] [rounds]
+ */
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+
+public class DecimalBench {
+
+	static Decimal sheetWithDecimal(Decimal prices[], Decimal quantities[], Decimal rate)
+			throws DivideByZeroException {
+		NumericMode mode = NumericMode.DECIMAL;
+		Decimal total = Decimal.ZERO;
+		for (int i = 0; i < prices.length; i++) {
+			Decimal line = prices[i].multiply(quantities[i], mode);
+			total = total.add(line.add(line.multiply(rate, mode), mode), mode);
+		}
+		return total;
+	}
+
+	static BigDecimal sheetWithBigDecimal(BigDecimal prices[], BigDecimal quantities[],
+			BigDecimal rate) {
+		MathContext context = MathContext.DECIMAL128;
+		BigDecimal total = BigDecimal.ZERO;
+		for (int i = 0; i < prices.length; i++) {
+			BigDecimal line = prices[i].multiply(quantities[i], context);
+			total = total.add(line.add(line.multiply(rate, context), context), context);
+		}
+		return total;
+	}
+
+	public static void main(String args[]) throws DivideByZeroException {
+		int lines = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+		Random random = new Random(42);
+		Decimal prices[] = new Decimal[lines], quantities[] = new Decimal[lines];
+		BigDecimal bigPrices[] = new BigDecimal[lines], bigQuantities[] = new BigDecimal[lines];
+		for (int i = 0; i < lines; i++) {
+			long cents = 1 + random.nextInt(100000);
+			long quantity = 1 + random.nextInt(20);
+			prices[i] = Decimal.valueOf(cents, 2);
+			quantities[i] = Decimal.valueOf(quantity, 0);
+			bigPrices[i] = BigDecimal.valueOf(cents, 2);
+			bigQuantities[i] = BigDecimal.valueOf(quantity);
+		}
+		Decimal rate = Decimal.valueOf("0.0775");
+		BigDecimal bigRate = new BigDecimal("0.0775");
+
+		Decimal total = null;
+		BigDecimal bigTotal = null;
+		long fast = 0, baseline = 0;
+		for (int round = 0; round <= rounds; round++) {
+			long begin = System.nanoTime();
+			total = sheetWithDecimal(prices, quantities, rate);
+			long middle = System.nanoTime();
+			bigTotal = sheetWithBigDecimal(bigPrices, bigQuantities, bigRate);
+			long end = System.nanoTime();
+			if (round > 0) {	// round 0 is warm up
+				fast += middle - begin;
+				baseline += end - middle;
+			}
+		}
+
+		if (total.toBigDecimal().compareTo(bigTotal) != 0)
+			throw new IllegalStateException(total + " != " + bigTotal);
+
+		System.out.printf("total %s%n", total);
+		System.out.printf("Decimal:    %,12.0f lines/sec%n", (double) lines * rounds / (fast / 1e9));
+		System.out.printf("BigDecimal: %,12.0f lines/sec%n", (double) lines * rounds / (baseline / 1e9));
+		System.out.printf("speedup %.2fx%n", (double) baseline / fast);
+	}
+}
@@ -0,0 +1,16 @@
+/* Thrown by the calculators and Expression for a division by zero.
+ */
+
+class DivideByZeroException extends Exception{
+	private static final long serialVersionUID = 1L;
+
+	public DivideByZeroException()
+	{
+		super();
+	}
+	
+	public DivideByZeroException(String s)
+	{
+		super(s);
+	}
+}
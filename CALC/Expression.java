@@ -0,0 +1,286 @@
+/* Headless expression engine for the calculator.
+ * Parses infix expressions with the calculator's operators into a tree
+ * of nodes that evaluate themselves, so an expression is parsed once
+ * and can then be evaluated any number of times without going through
+ * display strings.
+ *
+ * Grammar (usual precedence, left associative):
+ *   expression := term (('+' | '-') term)*
+ *   term       := unary (('*' | '/') unary)*
+ *   unary      := ('-' | '+') unary | postfix
+ *   postfix    := primary '%'*
+ *   primary    := number | '(' expression ')'
+ *               | 'sqrt' '(' expression ')' | 'recip' '(' expression ')'
+ *
+ * '%' divides by 100 and recip(x) is 1/x, as the % and 1/x buttons of
+ * Calc2 do.
+ */
+
+public abstract class Expression {
+
+	/* Evaluate the expression.
+	 * Throws DivideByZeroException for a division by zero or recip(0),
+	 * and ArithmeticException for the square root of a negative number.
+	 */
+	public abstract double evaluate() throws DivideByZeroException;
+
+	public static Expression parse(String text) {
+		Parser parser = new Parser(text);
+		Expression result = parser.expression();
+		parser.skipSpaces();
+		if (parser.pos < text.length())
+			throw parser.error("Unexpected '" + text.charAt(parser.pos) + "'");
+		return result;
+	}
+
+	// Nodes
+
+	static final class Constant extends Expression {
+		final double value;
+
+		Constant(double value) {
+			this.value = value;
+		}
+
+		public double evaluate() {
+			return value;
+		}
+	}
+
+	static final class Negate extends Expression {
+		final Expression operand;
+
+		Negate(Expression operand) {
+			this.operand = operand;
+		}
+
+		public double evaluate() throws DivideByZeroException {
+			return -operand.evaluate();
+		}
+	}
+
+	static final class Percent extends Expression {
+		final Expression operand;
+
+		Percent(Expression operand) {
+			this.operand = operand;
+		}
+
+		public double evaluate() throws DivideByZeroException {
+			return operand.evaluate() / 100;
+		}
+	}
+
+	static final class Sqrt extends Expression {
+		final Expression operand;
+
+		Sqrt(Expression operand) {
+			this.operand = operand;
+		}
+
+		public double evaluate() throws DivideByZeroException {
+			double value = operand.evaluate();
+			if (value < 0)
+				throw new ArithmeticException("Invalid input for function!");
+			return Math.sqrt(value);
+		}
+	}
+
+	static final class Reciprocal extends Expression {
+		final Expression operand;
+
+		Reciprocal(Expression operand) {
+			this.operand = operand;
+		}
+
+		public double evaluate() throws DivideByZeroException {
+			double value = operand.evaluate();
+			if (value == 0)
+				throw new DivideByZeroException("Cannot divide by zero!");
+			return 1 / value;
+		}
+	}
+
+	static final class Add extends Expression {
+		final Expression left, right;
+
+		Add(Expression left, Expression right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		public double evaluate() throws DivideByZeroException {
+			return left.evaluate() + right.evaluate();
+		}
+	}
+
+	static final class Subtract extends Expression {
+		final Expression left, right;
+
+		Subtract(Expression left, Expression right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		public double evaluate() throws DivideByZeroException {
+			return left.evaluate() - right.evaluate();
+		}
+	}
+
+	static final class Multiply extends Expression {
+		final Expression left, right;
+
+		Multiply(Expression left, Expression right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		public double evaluate() throws DivideByZeroException {
+			return left.evaluate() * right.evaluate();
+		}
+	}
+
+	static final class Divide extends Expression {
+		final Expression left, right;
+
+		Divide(Expression left, Expression right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		public double evaluate() throws DivideByZeroException {
+			double divisor = right.evaluate();
+			if (divisor == 0)
+				throw new DivideByZeroException("Cannot divide by zero!");
+			return left.evaluate() / divisor;
+		}
+	}
+
+	// Recursive descent parser, one method per grammar rule.
+
+	static final class Parser {
+		final String text;
+		int pos;
+
+		Parser(String text) {
+			this.text = text;
+		}
+
+		Expression expression() {
+			Expression result = term();
+			for (;;) {
+				if (accept('+'))
+					result = new Add(result, term());
+				else if (accept('-'))
+					result = new Subtract(result, term());
+				else
+					return result;
+			}
+		}
+
+		Expression term() {
+			Expression result = unary();
+			for (;;) {
+				if (accept('*'))
+					result = new Multiply(result, unary());
+				else if (accept('/'))
+					result = new Divide(result, unary());
+				else
+					return result;
+			}
+		}
+
+		Expression unary() {
+			if (accept('-'))
+				return new Negate(unary());
+			if (accept('+'))
+				return unary();
+			return postfix();
+		}
+
+		Expression postfix() {
+			Expression result = primary();
+			while (accept('%'))
+				result = new Percent(result);
+			return result;
+		}
+
+		Expression primary() {
+			skipSpaces();
+			if (pos >= text.length())
+				throw error("Unexpected end of expression");
+
+			char c = text.charAt(pos);
+			if (accept('(')) {
+				Expression result = expression();
+				expect(')');
+				return result;
+			}
+			if (Character.isDigit(c) || c == '.')
+				return number();
+			if (Character.isLetter(c)) {
+				int start = pos;
+				while (pos < text.length() && Character.isLetter(text.charAt(pos)))
+					pos++;
+				String name = text.substring(start, pos);
+				expect('(');
+				Expression operand = expression();
+				expect(')');
+				if (name.equals("sqrt"))
+					return new Sqrt(operand);
+				if (name.equals("recip"))
+					return new Reciprocal(operand);
+				pos = start;
+				throw error("Unknown function '" + name + "'");
+			}
+			throw error("Unexpected '" + c + "'");
+		}
+
+		Expression number() {
+			int start = pos;
+			while (pos < text.length()
+					&& (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.'))
+				pos++;
+			if (pos < text.length()
+					&& (text.charAt(pos) == 'E' || text.charAt(pos) == 'e')) {
+				pos++;
+				if (pos < text.length()
+						&& (text.charAt(pos) == '-' || text.charAt(pos) == '+'))
+					pos++;
+				while (pos < text.length() && Character.isDigit(text.charAt(pos)))
+					pos++;
+			}
+			try {
+				return new Constant(Double.parseDouble(text.substring(start, pos)));
+			}
+			catch (NumberFormatException e) {
+				pos = start;
+				throw error("Malformed number");
+			}
+		}
+
+		boolean accept(char c) {
+			skipSpaces();
+			if (pos < text.length() && text.charAt(pos) == c) {
+				pos++;
+				return true;
+			}
+			return false;
+		}
+
+		void expect(char c) {
+			if (!accept(c))
+				throw error("Expected '" + c + "'");
+		}
+
+		void skipSpaces() {
+			while (pos < text.length() && Character.isWhitespace(text.charAt(pos)))
+				pos++;
+		}
+
+		IllegalArgumentException error(String message) {
+			return new IllegalArgumentException(message + " at position "
+					+ pos + " in \"" + text + "\"");
+		}
+	}
+}
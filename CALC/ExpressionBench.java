@@ -0,0 +1,77 @@
+/* Evaluation throughput benchmark for Expression.
+ * HOW TO COMPILE: javac ExpressionBench.java
+ * HOW TO RUN: java ExpressionBench [expressions] [rounds]
+ */
+
+import java.util.Random;
+
+public class ExpressionBench {
+
+	// Build a random expression using every operator of the calculator.
+	static String randomExpression(Random random, int depth) {
+		if (depth == 0 || random.nextInt(4) == 0)
+			return Integer.toString(1 + random.nextInt(999))
+					+ (random.nextBoolean() ? "." + random.nextInt(100) : "");
+
+		switch (random.nextInt(8)) {
+			case 0:
+				return "sqrt(" + randomExpression(random, depth - 1) + ")";
+			case 1:
+				return "recip(" + randomExpression(random, depth - 1) + ")";
+			case 2:
+				return randomExpression(random, depth - 1) + "%";
+			case 3:
+				return "(" + randomExpression(random, depth - 1) + " - "
+						+ randomExpression(random, depth - 1) + ")";
+			case 4:
+				return randomExpression(random, depth - 1) + " * "
+						+ randomExpression(random, depth - 1);
+			case 5:
+				return randomExpression(random, depth - 1) + " / "
+						+ randomExpression(random, depth - 1);
+			default:
+				return randomExpression(random, depth - 1) + " + "
+						+ randomExpression(random, depth - 1);
+		}
+	}
+
+	public static void main(String args[]) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+		Random random = new Random(42);
+		String sources[] = new String[count];
+		for (int i = 0; i < count; i++)
+			sources[i] = randomExpression(random, 4);
+
+		long begin = System.nanoTime();
+		Expression expressions[] = new Expression[count];
+		for (int i = 0; i < count; i++)
+			expressions[i] = Expression.parse(sources[i]);
+		long elapsed = System.nanoTime() - begin;
+		System.out.printf("parsed %,d expressions: %,.0f parses/sec%n",
+				count, count / (elapsed / 1e9));
+
+		for (int round = 0; round <= rounds; round++) {
+			double sum = 0;
+			int errors = 0;
+			begin = System.nanoTime();
+			for (int i = 0; i < count; i++) {
+				try {
+					sum += expressions[i].evaluate();
+				}
+				catch (DivideByZeroException e) {
+					errors++;
+				}
+				catch (ArithmeticException e) {
+					errors++;
+				}
+			}
+			elapsed = System.nanoTime() - begin;
+			if (round == rounds)	// earlier rounds are warm up
+				System.out.printf("evaluated %,d expressions (%,d errors, sum %g): "
+						+ "%,.0f evaluations/sec%n", count, errors, sum,
+						count / (elapsed / 1e9));
+		}
+	}
+}
@@ -0,0 +1,155 @@
+/* Bounded, thread-safe cache of expression results.
+ * Results are keyed by the expression text with insignificant
+ * whitespace removed, so "1 + 2" and "1+2" share an entry. Evaluation
+ * failures (division by zero, invalid input) are cached too and rethrown
+ * on a hit; syntax errors are not, since their positions refer to the
+ * text as typed. Entries expire after a fixed time, and when the cache
+ * is full the oldest keys are evicted first.
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ExpressionCache {
+	private final int maxEntries;
+	private final long ttlNanos;
+
+	private final ConcurrentHashMap<String, Entry> entries;
+	// One element per key in entries, in the order the keys were added.
+	// An expired entry is replaced in place, keeping its key's element.
+	private final ConcurrentLinkedQueue<String> insertionOrder =
+			new ConcurrentLinkedQueue<String>();
+	private final AtomicInteger size = new AtomicInteger();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public ExpressionCache(int maxEntries, long ttl, TimeUnit unit) {
+		if (maxEntries <= 0)
+			throw new IllegalArgumentException("maxEntries: " + maxEntries);
+		this.maxEntries = maxEntries;
+		this.ttlNanos = unit.toNanos(ttl);
+		this.entries = new ConcurrentHashMap<String, Entry>(Math.min(maxEntries, 1 << 16));
+	}
+
+	// Value of the expression, from the cache when possible.
+	// Throws what Expression.parse and Expression.evaluate throw.
+	public double evaluate(String expression) throws DivideByZeroException {
+		String key = normalize(expression);
+		long now = System.nanoTime();
+
+		Entry entry = entries.get(key);
+		if (entry != null && now - entry.expiresAt < 0) {
+			hits.increment();
+			return entry.result();
+		}
+
+		misses.increment();
+		Expression parsed;
+		try {
+			parsed = Expression.parse(key);
+		}
+		catch (IllegalArgumentException e) {
+			// Let the error quote the expression as given.
+			return Expression.parse(expression).evaluate();
+		}
+		try {
+			entry = new Entry(parsed.evaluate(), null, now + ttlNanos);
+		}
+		catch (DivideByZeroException e) {
+			entry = new Entry(0, e, now + ttlNanos);
+		}
+		catch (RuntimeException e) {	// ArithmeticException
+			entry = new Entry(0, e, now + ttlNanos);
+		}
+		store(key, entry, now);
+		return entry.result();
+	}
+
+	private void store(String key, Entry entry, long now) {
+		Entry previous = entries.put(key, entry);
+		if (previous == null) {
+			insertionOrder.add(key);
+			size.incrementAndGet();
+		}
+		else if (now - previous.expiresAt >= 0)
+			evictions.increment();	// Expired and replaced
+		while (size.get() > maxEntries) {
+			String oldest = insertionOrder.poll();
+			if (oldest == null)
+				break;
+			if (entries.remove(oldest) != null) {
+				size.decrementAndGet();
+				evictions.increment();
+			}
+		}
+	}
+
+	// Expression text without whitespace, except single spaces that
+	// keep two numbers or names apart ("1 2" must stay an error).
+	static String normalize(String expression) {
+		StringBuilder key = new StringBuilder(expression.length());
+		boolean pendingSpace = false;
+		for (int i = 0; i < expression.length(); i++) {
+			char c = expression.charAt(i);
+			if (Character.isWhitespace(c)) {
+				pendingSpace = key.length() > 0;
+				continue;
+			}
+			if (pendingSpace && isWordChar(c) && isWordChar(key.charAt(key.length() - 1)))
+				key.append(' ');
+			key.append(c);
+			pendingSpace = false;
+		}
+		return key.toString();
+	}
+
+	private static boolean isWordChar(char c) {
+		return Character.isLetterOrDigit(c) || c == '.';
+	}
+
+	public long hits() {
+		return hits.sum();
+	}
+
+	public long misses() {
+		return misses.sum();
+	}
+
+	public long evictions() {
+		return evictions.sum();
+	}
+
+	public int size() {
+		return size.get();
+	}
+
+	public String toString() {
+		return "ExpressionCache[size=" + size() + ", hits=" + hits()
+				+ ", misses=" + misses() + ", evictions=" + evictions() + "]";
+	}
+
+	static final class Entry {
+		final double value;
+		final Exception error;	// DivideByZeroException or RuntimeException
+		final long expiresAt;	// System.nanoTime() deadline
+
+		Entry(double value, Exception error, long expiresAt) {
+			this.value = value;
+			this.error = error;
+			this.expiresAt = expiresAt;
+		}
+
+		double result() throws DivideByZeroException {
+			if (error instanceof DivideByZeroException)
+				throw (DivideByZeroException) error;
+			if (error != null)
+				throw (RuntimeException) error;
+			return value;
+		}
+	}
+}
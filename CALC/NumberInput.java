@@ -0,0 +1,136 @@
+/* Numeric input accumulator for the calculator keypad.
+ * Keeps the number being typed as a sign, a decimal mantissa and the
+ * count of digits after the decimal point, so keys can be applied
+ * without building strings. Text is only produced by render() when the
+ * number has to be shown.
+ */
+
+public class NumberInput {
+	// Digits that fit in the long mantissa.
+	static final int MAX_DIGITS = 18;
+
+	private static final long LONG_POW10[] = new long[MAX_DIGITS + 1];
+	private static final double DOUBLE_POW10[] = new double[MAX_DIGITS + 1];
+
+	static {
+		LONG_POW10[0] = 1;
+		DOUBLE_POW10[0] = 1;
+		for (int i = 1; i <= MAX_DIGITS; i++) {
+			LONG_POW10[i] = LONG_POW10[i - 1] * 10;
+			DOUBLE_POW10[i] = LONG_POW10[i];
+		}
+	}
+
+	private long mantissa;		// digits typed, without the decimal point
+	private int digits;		// significant digits in mantissa
+	private int decimals;		// digits typed after the decimal point
+	private boolean point;		// decimal point typed
+	private boolean negative;
+
+	public NumberInput() {
+		clear();
+	}
+
+	// Reset to "0".
+	public void clear() {
+		mantissa = 0;
+		digits = 0;
+		decimals = 0;
+		point = false;
+		negative = false;
+	}
+
+	// Append a digit. Leading zeros before the decimal point are
+	// dropped. Returns false if the input is full.
+	public boolean addDigit(int digit) {
+		if (digits >= MAX_DIGITS)
+			return false;
+		if (digit == 0 && digits == 0 && !point)
+			return true;
+
+		mantissa = mantissa * 10 + digit;
+		digits++;
+		if (point)
+			decimals++;
+		return true;
+	}
+
+	// Add the decimal point, unless there already is one.
+	public void addDecimalPoint() {
+		point = true;
+	}
+
+	// Change the sign, unless the input is still "0".
+	public void toggleSign() {
+		if (digits > 0 || point)
+			negative = !negative;
+	}
+
+	// Remove the last character typed.
+	public void backspace() {
+		if (point && decimals == 0)
+			point = false;
+		else if (digits > 0) {
+			mantissa /= 10;
+			digits--;
+			if (point)
+				decimals--;
+		}
+		if (digits == 0 && !point)
+			negative = false;
+	}
+
+	public boolean isZero() {
+		return mantissa == 0;
+	}
+
+	// Digits of the input, without sign or decimal point.
+	public long getMantissa() {
+		return mantissa;
+	}
+
+	// Number of digits after the decimal point.
+	public int getScale() {
+		return decimals;
+	}
+
+	public boolean isNegative() {
+		return negative;
+	}
+
+	// Value of the input. Exact inputs of up to 15 digits convert
+	// exactly; longer ones may be off by one unit in the last place.
+	public double value() {
+		double value = mantissa / DOUBLE_POW10[decimals];
+		return negative ? -value : value;
+	}
+
+	// Write the input as text into buffer, which must hold at least
+	// MAX_DIGITS + 3 chars. Returns the number of chars written.
+	public int render(char buffer[]) {
+		int length = (negative ? 1 : 0)
+				+ Math.max(digits - decimals, 1)
+				+ (point ? 1 + decimals : 0);
+		int pos = length;
+		long rest = mantissa;
+
+		for (int i = 0; i < decimals; i++) {
+			buffer[--pos] = (char) ('0' + rest % 10);
+			rest /= 10;
+		}
+		if (point)
+			buffer[--pos] = '.';
+		do {
+			buffer[--pos] = (char) ('0' + rest % 10);
+			rest /= 10;
+		} while (rest != 0);
+		if (negative)
+			buffer[--pos] = '-';
+		return length;
+	}
+
+	public String toString() {
+		char buffer[] = new char[MAX_DIGITS + 3];
+		return new String(buffer, 0, render(buffer));
+	}
+}
@@ -0,0 +1,29 @@
+/* Number backends the calculators can work in.
+ *   DOUBLE     binary floating point, as the calculators always did
+ *   DECIMAL    exact decimal; every result rounded to 34 digits
+ *              (IEEE decimal128), as for money
+ *   ARBITRARY  + - * exact with no digit limit; / and sqrt to 100 digits
+ */
+
+import java.math.MathContext;
+
+public enum NumericMode {
+	DOUBLE(null, false),
+	DECIMAL(MathContext.DECIMAL128, true),
+	ARBITRARY(new MathContext(100), false);
+
+	// Precision of results that cannot be exact (division, sqrt).
+	final MathContext context;
+	// Whether every result, even an exact one, is rounded to context.
+	final boolean roundsEveryResult;
+
+	NumericMode(MathContext context, boolean roundsEveryResult) {
+		this.context = context;
+		this.roundsEveryResult = roundsEveryResult;
+	}
+
+	// Mode named on the command line, case insensitive.
+	static NumericMode fromName(String name) {
+		return valueOf(name.toUpperCase());
+	}
+}
@@ -3,10 +3,13 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 public class CandyMachine extends JFrame implements ActionListener{
    private static final int WIDTH = 300;
    private static final int HEIGHT = 300;
+   private static final String JOURNAL_FILE = "sales.journal";
 
         //Instance variables
    private cashRegister cashRegister = new cashRegister();
@@ -14,6 +17,11 @@ public class CandyMachine extends JFrame implements ActionListener{
    private Dispenser chips = new Dispenser(100, 65);
    private Dispenser gum = new Dispenser(75, 45);
    private Dispenser cookies = new Dispenser(100, 85);
+   private Dispenser[] products = {candy, chips, gum, cookies};
+                                  //journal index of each dispenser
+   private VendingEngine engine = new VendingEngine(cashRegister);
+   private SalesJournal journal;  //null if the journal could not
+                                  //be opened
 
    private JLabel headingMainL;
    private JLabel selectionL;
@@ -21,6 +29,9 @@ public class CandyMachine extends JFrame implements ActionListener{
    private JButton exitB, candyB, chipsB, gumB, cookiesB;
   
    public CandyMachine(){
+      openJournal();                  //restore sales made before
+                                      //the last restart
+
       setTitle("Candy Machine");      //set the window title
       setSize(WIDTH, HEIGHT);         //set the window size
 
@@ -72,6 +83,38 @@ public class CandyMachine extends JFrame implements ActionListener{
 
    } //end constructor
 
+        //Method to replay the sales journal into the dispensers
+        //and the register, then keep it open for new sales
+   private void openJournal(){
+      try{
+         SalesJournal.replay(Paths.get(JOURNAL_FILE), products,
+                             cashRegister);
+         journal = new SalesJournal(Paths.get(JOURNAL_FILE), 64);
+      } catch (IOException e){
+         System.err.println("Sales journal unavailable: " + e);
+         journal = null;
+      }
+   }
+
+        //Method to log a completed sale
+        //A terminal sells one item at a time, so each sale is
+        //committed right away.
+   private void journalSale(Dispenser product, int amount){
+      if (journal == null)
+         return;
+
+      for (int i = 0; i < products.length; i++)
+         if (products[i] == product){
+            try{
+               journal.recordSale(i, amount);
+               journal.commit();
+            } catch (IOException e){
+               System.err.println("Sale not journaled: " + e);
+            }
+            return;
+         }
+   }
+
           //class to handle button events
         public void actionPerformed (ActionEvent e){
           if (e.getActionCommand().equals("Exit"))
@@ -86,35 +129,44 @@ public class CandyMachine extends JFrame implements ActionListener{
               sellProduct(cookies, "Cookies");
       }
         //Method to sell a product
+        //The sale rules live in VendingEngine; this method only
+        //collects coins through dialogs and shows the outcome.
    private void sellProduct(Dispenser product, String productName){
-     int coinsInserted = 0;
-     int price;
-     int coinsRequired;
-
+     VendingEngine.Outcome outcome;
      String str;
 
-     if (product.getCount() > 0){
-        price = product.getProductCost();
-        coinsRequired = price - coinsInserted;
-
-        while (coinsRequired > 0){
-            str = JOptionPane.showInputDialog("To buy "
-                                  + productName
-                                  + " please insert "
-                                  + coinsRequired + " cents");
-            coinsInserted = coinsInserted
-                            + Integer.parseInt(str);
-            coinsRequired = price - coinsInserted;
+     outcome = engine.select(product);
+
+     while (outcome == VendingEngine.Outcome.INSERT_MORE){
+        str = JOptionPane.showInputDialog("To buy "
+                              + productName
+                              + " please insert "
+                              + engine.coinsRequired() + " cents");
+        if (str == null)          //customer cancelled
+           outcome = engine.cancel();
+        else{
+           try{
+              outcome = engine.insertCoins(Integer.parseInt(str.trim()));
+           } catch (IllegalArgumentException e){
+              //not a valid amount, ask again
+           }
         }
+     }
 
-        cashRegister.acceptAmount(coinsInserted);
-        product.makeSale();
-
+     if (outcome == VendingEngine.Outcome.SALE){
+        journalSale(product, engine.lastAmount());
         JOptionPane.showMessageDialog(null,"Please pick up your "
                                + productName + " and enjoy",
                                 "Thank you, Come again!",
                                JOptionPane.PLAIN_MESSAGE);
      }
+     else if (outcome == VendingEngine.Outcome.REFUND){
+        if (engine.lastAmount() > 0)
+           JOptionPane.showMessageDialog(null,"Please take back your "
+                               + engine.lastAmount() + " cents",
+                                "Thank you, Come again!",
+                               JOptionPane.PLAIN_MESSAGE);
+     }
      else           //dispenser is empty
         JOptionPane.showMessageDialog(null,"Sorry "
                                + productName
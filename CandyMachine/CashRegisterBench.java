@@ -0,0 +1,59 @@
+//Deposit throughput benchmark for cashRegister
+//HOW TO COMPILE: javac CashRegisterBench.java
+//HOW TO RUN: java CashRegisterBench [depositsPerThread] [maxThreads]
+
+import java.util.concurrent.CountDownLatch;
+
+public class CashRegisterBench{
+
+        //Method to make the given number of deposits from each
+        //thread into one register and report deposits per second
+        //Postcondition: Throws IllegalStateException if the final
+        //               balance does not match the deposits made.
+   private static void run(int threads, final int depositsPerThread)
+                                        throws InterruptedException{
+      final cashRegister register = new cashRegister(0);
+      final CountDownLatch start = new CountDownLatch(1);
+      Thread[] writers = new Thread[threads];
+
+      for (int i = 0; i < threads; i++){
+         writers[i] = new Thread(new Runnable(){
+            public void run(){
+               try{
+                  start.await();
+               } catch (InterruptedException e){
+                  return;
+               }
+               for (int n = 0; n < depositsPerThread; n++)
+                  register.acceptAmount(1);
+            }
+         });
+         writers[i].start();
+      }
+
+      long begin = System.nanoTime();
+      start.countDown();
+      for (int i = 0; i < threads; i++)
+         writers[i].join();
+      long elapsed = System.nanoTime() - begin;
+
+      long expected = (long) threads * depositsPerThread;
+      if (register.currentBalance() != expected)
+         throw new IllegalStateException("lost deposits: expected "
+                                   + expected + ", balance "
+                                   + register.currentBalance());
+
+      System.out.printf("%2d writers: %,15.0f deposits/sec%n",
+                        threads, expected / (elapsed / 1e9));
+   }
+
+   public static void main(String[] args) throws InterruptedException{
+      int depositsPerThread = args.length > 0 ? Integer.parseInt(args[0])
+                                              : 5000000;
+      int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+
+      run(1, depositsPerThread);     //warm up
+      for (int threads = 1; threads <= maxThreads; threads *= 2)
+         run(threads, depositsPerThread);
+   }
+}
@@ -1,15 +1,20 @@
 //class Dispenser
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class Dispenser{
-    private int numberOfItems;   //variable to store the number of
-                                 //items in the dispenser
+    private final AtomicInteger numberOfItems = new AtomicInteger();
+                                 //variable to store the number of
+                                 //items in the dispenser; updated
+                                 //with compare-and-set so that many
+                                 //terminals can share one dispenser
     private int cost;    //variable to store the cost of an item
 
         //Default constructor to set the cost and number of
         //items to the default values
         //Postcondition: numberOfItems = 50; cost = 50;
     public Dispenser(){
-         numberOfItems = 50;
+         numberOfItems.set(50);
          cost = 50;
     }
 
@@ -19,9 +24,9 @@ public class Dispenser{
         //               cost = setCost;
     public Dispenser(int setNoOfItems, int setCost){
          if (setNoOfItems >= 0)
-             numberOfItems = setNoOfItems;
+             numberOfItems.set(setNoOfItems);
          else
-             numberOfItems = 50;
+             numberOfItems.set(50);
 
          if (setCost >= 0)
              cost = setCost;
@@ -33,7 +38,7 @@ public class Dispenser{
         //Postcondition: The value of the instance variable
         //                numberOfItems is returned.
     public int getCount(){
-         return numberOfItems;
+         return numberOfItems.get();
     }
 
         //Method to show the cost of the item
@@ -46,6 +51,30 @@ public class Dispenser{
         //Method to reduce the number of items by 1
         //Postcondition: numberOfItems = numberOfItems - 1
     public void makeSale(){
-        numberOfItems--;
+        numberOfItems.decrementAndGet();
+    }
+
+        //Method to atomically reserve one item for a sale.
+        //The check for stock and the decrement happen in a
+        //single compare-and-set, so concurrent callers can
+        //never take more items than the dispenser holds.
+        //Postcondition: If numberOfItems > 0, numberOfItems is
+        //               reduced by 1 and true is returned;
+        //               otherwise false (sold out) is returned.
+    public boolean tryReserve(){
+        int count = numberOfItems.get();
+        while (count > 0){
+            if (numberOfItems.compareAndSet(count, count - 1))
+                return true;
+            count = numberOfItems.get();
+        }
+        return false;
+    }
+
+        //Method to give back an item reserved with tryReserve
+        //when the customer walks away without paying
+        //Postcondition: numberOfItems = numberOfItems + 1
+    public void cancelReservation(){
+        numberOfItems.incrementAndGet();
     }
 }
@@ -0,0 +1,63 @@
+//Stress benchmark for Dispenser.tryReserve
+//HOW TO COMPILE: javac DispenserBench.java
+//HOW TO RUN: java DispenserBench [itemsPerThread] [maxThreads]
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DispenserBench{
+
+        //Method to sell a dispenser empty from the given number
+        //of threads and report sales per second
+        //Postcondition: Throws IllegalStateException if more
+        //               items were sold than were stocked.
+   private static void run(int threads, int itemsPerThread)
+                                        throws InterruptedException{
+      final int stock = threads * itemsPerThread;
+      final Dispenser dispenser = new Dispenser(stock, 50);
+      final AtomicLong sold = new AtomicLong();
+      final CountDownLatch start = new CountDownLatch(1);
+      Thread[] kiosks = new Thread[threads];
+
+      for (int i = 0; i < threads; i++){
+         kiosks[i] = new Thread(new Runnable(){
+            public void run(){
+               long mine = 0;
+               try{
+                  start.await();
+               } catch (InterruptedException e){
+                  return;
+               }
+               while (dispenser.tryReserve())
+                  mine++;
+               sold.addAndGet(mine);
+            }
+         });
+         kiosks[i].start();
+      }
+
+      long begin = System.nanoTime();
+      start.countDown();
+      for (int i = 0; i < threads; i++)
+         kiosks[i].join();
+      long elapsed = System.nanoTime() - begin;
+
+      if (sold.get() != stock || dispenser.getCount() != 0)
+         throw new IllegalStateException("oversold: stocked " + stock
+                                   + ", sold " + sold.get()
+                                   + ", left " + dispenser.getCount());
+
+      System.out.printf("%2d threads: %,15.0f sales/sec, oversells 0%n",
+                        threads, stock / (elapsed / 1e9));
+   }
+
+   public static void main(String[] args) throws InterruptedException{
+      int itemsPerThread = args.length > 0 ? Integer.parseInt(args[0])
+                                           : 2000000;
+      int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+
+      run(1, itemsPerThread);     //warm up
+      for (int threads = 1; threads <= maxThreads; threads *= 2)
+         run(threads, itemsPerThread);
+   }
+}
@@ -0,0 +1,190 @@
+//Load generator for the candy shop
+//Every simulated customer runs the CandyMachine purchase flow
+//through its own VendingEngine against shared dispensers and one
+//shared cash register.
+//HOW TO COMPILE: javac KioskSimulator.java
+//HOW TO RUN: java KioskSimulator [customers] [stockPerProduct]
+//                                [coinDelayMicros] [poolThreads]
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class KioskSimulator{
+   private static final int[] COINS = {5, 10, 25};
+   private static final String[] NAMES = {"Candy", "Chips", "Gum",
+                                          "Cookies"};
+
+   private final Dispenser[] products;
+   private final cashRegister register = new cashRegister(0);
+   private final long coinDelayNanos;
+   private final LatencyHistogram latency = new LatencyHistogram();
+   private final LongAdder sales = new LongAdder();
+   private final LongAdder soldOut = new LongAdder();
+   private final LongAdder refunds = new LongAdder();
+   private final LongAdder revenue = new LongAdder();
+
+   public KioskSimulator(int stockPerProduct, long coinDelayMicros){
+      products = new Dispenser[]{new Dispenser(stockPerProduct, 50),
+                                 new Dispenser(stockPerProduct, 65),
+                                 new Dispenser(stockPerProduct, 45),
+                                 new Dispenser(stockPerProduct, 85)};
+      coinDelayNanos = TimeUnit.MICROSECONDS.toNanos(coinDelayMicros);
+   }
+
+        //Method to run one customer from selection to sale,
+        //refund or sold-out message
+        //One customer in twenty walks away after the first coin.
+   private void customer(){
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      VendingEngine engine = new VendingEngine(register);
+      long begin = System.nanoTime();
+
+      VendingEngine.Outcome outcome =
+            engine.select(products[random.nextInt(products.length)]);
+      boolean walkAway = random.nextInt(20) == 0;
+      boolean inserted = false;
+      while (outcome == VendingEngine.Outcome.INSERT_MORE){
+         if (coinDelayNanos > 0)
+            LockSupport.parkNanos(coinDelayNanos);
+         if (walkAway && inserted)
+            outcome = engine.cancel();
+         else {
+            outcome = engine.insertCoins(COINS[random.nextInt(COINS.length)]);
+            inserted = true;
+         }
+      }
+
+      latency.record(System.nanoTime() - begin);
+      if (outcome == VendingEngine.Outcome.SALE){
+         sales.increment();
+         revenue.add(engine.lastAmount());
+      }
+      else if (outcome == VendingEngine.Outcome.SOLD_OUT)
+         soldOut.increment();
+      else
+         refunds.increment();
+   }
+
+        //Method to create the executor the customers run on
+        //Uses one virtual thread per customer when the JDK has
+        //them, else a fixed pool of platform threads.
+   private static ExecutorService customerExecutor(int poolThreads){
+      try{
+         return (ExecutorService) Executors.class
+               .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (ReflectiveOperationException e){
+         System.out.println("virtual threads unavailable, using "
+                            + poolThreads + " platform threads");
+         return Executors.newFixedThreadPool(poolThreads);
+      }
+   }
+
+   private void report(int customers, int stockPerProduct, long elapsed){
+      System.out.printf("%,d customers in %,.0f ms: %,.0f customers/sec%n",
+                        customers, elapsed / 1e6,
+                        customers / (elapsed / 1e9));
+      System.out.printf("sales %,d, refunds %,d, sold out %,d (%.1f%%)%n",
+                        sales.sum(), refunds.sum(), soldOut.sum(),
+                        100.0 * soldOut.sum() / customers);
+      System.out.printf("latency p50 %,d us, p99 %,d us, p999 %,d us, "
+                        + "max %,d us%n",
+                        latency.percentile(50.0) / 1000,
+                        latency.percentile(99.0) / 1000,
+                        latency.percentile(99.9) / 1000,
+                        latency.max() / 1000);
+
+      long left = 0;
+      for (int i = 0; i < products.length; i++){
+         System.out.printf("%-8s %,d left%n", NAMES[i],
+                           products[i].getCount());
+         left += products[i].getCount();
+      }
+      if (left != (long) products.length * stockPerProduct - sales.sum()
+              || register.currentBalance() != revenue.sum())
+         throw new IllegalStateException("inventory or register mismatch");
+   }
+
+   public static void main(String[] args) throws InterruptedException{
+      int customers = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+      int stock = args.length > 1 ? Integer.parseInt(args[1])
+                                  : customers / 5;
+      long coinDelayMicros = args.length > 2 ? Long.parseLong(args[2]) : 200;
+      int poolThreads = args.length > 3 ? Integer.parseInt(args[3]) : 256;
+
+      final KioskSimulator shop = new KioskSimulator(stock, coinDelayMicros);
+      ExecutorService executor = customerExecutor(poolThreads);
+
+      long begin = System.nanoTime();
+      for (int i = 0; i < customers; i++)
+         executor.execute(new Runnable(){
+            public void run(){
+               shop.customer();
+            }
+         });
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.DAYS);
+      long elapsed = System.nanoTime() - begin;
+
+      shop.report(customers, stock, elapsed);
+   }
+}
+
+//class LatencyHistogram
+//Concurrent log-linear histogram of nanosecond latencies. Each
+//power of two is split into 16 buckets, so percentiles are within
+//about 6% of the recorded value.
+class LatencyHistogram{
+   private static final int SUB_BUCKETS = 16;
+   private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+   private final LongAdder total = new LongAdder();
+   private final AtomicLong max = new AtomicLong();
+
+   void record(long nanos){
+      if (nanos < 0)
+         nanos = 0;
+      counts.incrementAndGet(bucket(nanos));
+      total.increment();
+      long seen = max.get();
+      while (nanos > seen && !max.compareAndSet(seen, nanos))
+         seen = max.get();
+   }
+
+   long max(){
+      return max.get();
+   }
+
+        //Method to return the upper bound of the bucket holding
+        //the given percentile of the recorded values
+   long percentile(double percent){
+      long target = (long) Math.ceil(total.sum() * percent / 100.0);
+      long seen = 0;
+      for (int i = 0; i < counts.length(); i++){
+         seen += counts.get(i);
+         if (seen >= target && seen > 0)
+            return Math.min(upperBound(i), max.get());
+      }
+      return max.get();
+   }
+
+   private static int bucket(long value){
+      if (value < SUB_BUCKETS)
+         return (int) value;
+      int exponent = 63 - Long.numberOfLeadingZeros(value);
+      int mantissa = (int) (value >>> (exponent - 4)) & (SUB_BUCKETS - 1);
+      return (exponent - 3) * SUB_BUCKETS + mantissa;
+   }
+
+   private static long upperBound(int bucket){
+      if (bucket < SUB_BUCKETS)
+         return bucket;
+      int exponent = bucket / SUB_BUCKETS + 3;
+      long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS + 1;
+      return (mantissa << (exponent - 4)) - 1;
+   }
+}
@@ -0,0 +1,120 @@
+//class SalesJournal
+//Append-only log of sales. Each record holds the index of the
+//dispenser that sold an item and the cents taken for it. Records
+//are collected in a buffer and written with a single fsync per
+//batch (group commit); replay() rebuilds dispenser and register
+//state from the log after a restart.
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class SalesJournal implements Closeable{
+    private static final int RECORD_SIZE = 8;   //int product + int cents
+
+    private final FileChannel channel;   //log file, positioned at
+                                         //its end
+    private final ByteBuffer pending;    //records not yet written
+
+        //Constructor to open (or create) the journal file
+        //A partly written record left by a crash is cut off.
+        //Postcondition: Up to batchSize records are buffered
+        //               before they are written and forced.
+    public SalesJournal(Path file, int batchSize) throws IOException{
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("batchSize: " + batchSize);
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                                   StandardOpenOption.READ,
+                                   StandardOpenOption.WRITE);
+        long end = channel.size() - channel.size() % RECORD_SIZE;
+        channel.truncate(end);
+        channel.position(end);
+        pending = ByteBuffer.allocateDirect(batchSize * RECORD_SIZE);
+    }
+
+        //Method to log the sale of one item
+        //Postcondition: The sale is buffered; the buffer is
+        //               committed when it is full.
+    public synchronized void recordSale(int product, int amount)
+                                                throws IOException{
+        pending.putInt(product).putInt(amount);
+        if (!pending.hasRemaining())
+            commit();
+    }
+
+        //Method to write and fsync all buffered sales
+        //Sales buffered by other threads are committed by the
+        //same fsync.
+        //Postcondition: Every sale recorded so far is on disk.
+    public synchronized void commit() throws IOException{
+        if (pending.position() == 0)
+            return;
+
+        pending.flip();
+        while (pending.hasRemaining())
+            channel.write(pending);
+        pending.clear();
+        channel.force(false);
+    }
+
+        //Method to commit buffered sales and close the file
+    public synchronized void close() throws IOException{
+        try{
+            commit();
+        } finally{
+            channel.close();
+        }
+    }
+
+        //Method to apply every sale in a journal file
+        //products[i] is the dispenser logged with index i. A
+        //missing file is an empty journal.
+        //Postcondition: One item per logged sale is removed from
+        //               its dispenser, the logged cents are added
+        //               to register and the number of sales
+        //               replayed is returned.
+    public static long replay(Path file, Dispenser[] products,
+                              cashRegister register) throws IOException{
+        if (!Files.exists(file))
+            return 0;
+
+        long[] sold = new long[products.length];
+        long cents = 0;
+        long records = 0;
+
+        try (FileChannel in = FileChannel.open(file,
+                                               StandardOpenOption.READ)){
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            while (in.read(buffer) >= 0){
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_SIZE){
+                    int product = buffer.getInt();
+                    int amount = buffer.getInt();
+                    if (product < 0 || product >= products.length)
+                        throw new IOException("bad product " + product
+                                              + " in record " + records);
+                    sold[product]++;
+                    cents += amount;
+                    records++;
+                }
+                buffer.compact();
+            }
+        }
+
+        for (int i = 0; i < products.length; i++)
+            for (long n = 0; n < sold[i]; n++)
+                products[i].makeSale();
+        while (cents > Integer.MAX_VALUE){
+            register.acceptAmount(Integer.MAX_VALUE);
+            cents -= Integer.MAX_VALUE;
+        }
+        register.acceptAmount((int) cents);
+
+        return records;
+    }
+}
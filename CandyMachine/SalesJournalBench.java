@@ -0,0 +1,47 @@
+//Write and recovery benchmark for SalesJournal
+//HOW TO COMPILE: javac SalesJournalBench.java
+//HOW TO RUN: java SalesJournalBench [sales] [batchSize] [file]
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class SalesJournalBench{
+   private static final int[] PRICES = {50, 65, 45, 85};
+
+   public static void main(String[] args) throws IOException{
+      int sales = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+      int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 4096;
+      Path file = args.length > 2 ? Paths.get(args[2])
+                                  : Files.createTempFile("sales", ".journal");
+      Files.deleteIfExists(file);
+
+      long begin = System.nanoTime();
+      try (SalesJournal journal = new SalesJournal(file, batchSize)){
+         for (int i = 0; i < sales; i++)
+            journal.recordSale(i & 3, PRICES[i & 3]);
+      }
+      long elapsed = System.nanoTime() - begin;
+      System.out.printf("journaled %,d sales in batches of %,d: "
+                        + "%,.0f sales/sec (%,d fsyncs)%n",
+                        sales, batchSize, sales / (elapsed / 1e9),
+                        (sales + batchSize - 1) / batchSize);
+
+      Dispenser[] products = new Dispenser[PRICES.length];
+      for (int i = 0; i < products.length; i++)
+         products[i] = new Dispenser(sales, PRICES[i]);
+      cashRegister register = new cashRegister(0);
+
+      begin = System.nanoTime();
+      long replayed = SalesJournal.replay(file, products, register);
+      elapsed = System.nanoTime() - begin;
+      System.out.printf("recovered %,d sales in %,.1f ms%n",
+                        replayed, elapsed / 1e6);
+
+      if (replayed != sales)
+         throw new IllegalStateException("replayed " + replayed
+                                         + " of " + sales + " sales");
+      Files.delete(file);
+   }
+}
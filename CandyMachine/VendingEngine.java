@@ -0,0 +1,113 @@
+//class VendingEngine
+//Headless sale logic for one vending terminal. The terminal feeds
+//it select, coin and cancel events and reacts to the outcome it
+//returns; the dispensers and cash register may be shared by many
+//terminals.
+
+public class VendingEngine{
+        //Possible results of an event
+    public enum Outcome{
+        SOLD_OUT,       //the selected dispenser is empty
+        INSERT_MORE,    //coinsRequired() more cents are needed
+        SALE,           //the item was sold for lastAmount() cents
+        REFUND,         //the sale was cancelled and lastAmount()
+                        //cents are returned to the customer
+        NO_SELECTION    //no sale is in progress
+    }
+
+    private final cashRegister register;  //register receiving the
+                                           //money of each sale
+    private Dispenser selection;    //dispenser of the sale in
+                                    //progress, null if none
+    private int coinsInserted;      //cents inserted for the sale
+                                    //in progress
+    private int lastAmount;         //cents taken by the last sale
+                                    //or returned by the last refund
+
+        //Constructor to set the cash register used for sales
+        //Postcondition: register = saleRegister;
+        //               no sale is in progress
+    public VendingEngine(cashRegister saleRegister){
+        register = saleRegister;
+    }
+
+        //Method to start a sale of one item of product
+        //Postcondition: If product is empty SOLD_OUT is returned.
+        //               Otherwise one item is reserved and
+        //               INSERT_MORE is returned, or SALE if the
+        //               item is free. Throws IllegalStateException
+        //               if a sale is already in progress.
+    public Outcome select(Dispenser product){
+        if (selection != null)
+            throw new IllegalStateException("sale already in progress");
+
+        if (!product.tryReserve())
+            return Outcome.SOLD_OUT;
+
+        selection = product;
+        coinsInserted = 0;
+        if (coinsRequired() > 0)
+            return Outcome.INSERT_MORE;
+        return completeSale();
+    }
+
+        //Method to insert coins for the sale in progress
+        //Postcondition: coinsInserted = coinsInserted + amount;
+        //               SALE is returned and the money goes to the
+        //               register once the price is reached,
+        //               otherwise INSERT_MORE is returned.
+        //               NO_SELECTION is returned if no sale is in
+        //               progress.
+    public Outcome insertCoins(int amount){
+        if (amount < 0)
+            throw new IllegalArgumentException("negative amount: "
+                                               + amount);
+        if (selection == null)
+            return Outcome.NO_SELECTION;
+
+        coinsInserted = coinsInserted + amount;
+        if (coinsRequired() > 0)
+            return Outcome.INSERT_MORE;
+        return completeSale();
+    }
+
+        //Method to cancel the sale in progress
+        //Postcondition: The reserved item is put back and REFUND
+        //               is returned with lastAmount() set to the
+        //               cents inserted. NO_SELECTION is returned if
+        //               no sale is in progress.
+    public Outcome cancel(){
+        if (selection == null)
+            return Outcome.NO_SELECTION;
+
+        selection.cancelReservation();
+        lastAmount = coinsInserted;
+        selection = null;
+        coinsInserted = 0;
+        return Outcome.REFUND;
+    }
+
+        //Method to show how many cents are still needed
+        //Postcondition: The price of the selected item minus
+        //               coinsInserted is returned, or 0 if no sale
+        //               is in progress.
+    public int coinsRequired(){
+        if (selection == null)
+            return 0;
+        return selection.getProductCost() - coinsInserted;
+    }
+
+        //Method to show the amount of the last sale or refund
+        //Postcondition: The value of lastAmount is returned.
+    public int lastAmount(){
+        return lastAmount;
+    }
+
+    private Outcome completeSale(){
+        register.acceptAmount(coinsInserted);
+        lastAmount = coinsInserted;
+        selection = null;
+        coinsInserted = 0;
+        return Outcome.SALE;
+    }
+}
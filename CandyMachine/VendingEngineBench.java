@@ -0,0 +1,61 @@
+//Throughput benchmark for VendingEngine
+//HOW TO COMPILE: javac VendingEngineBench.java
+//HOW TO RUN: java VendingEngineBench [transactions]
+
+public class VendingEngineBench{
+   private static final int[] COINS = {5, 10, 25, 50};
+
+        //Method to run simulated transactions through one engine
+        //Every eighth customer cancels after the first coin.
+        //Postcondition: Throws IllegalStateException if the
+        //               register and the dispensers disagree.
+   private static void run(int transactions){
+      cashRegister register = new cashRegister(0);
+      Dispenser[] products = {new Dispenser(transactions, 50),
+                              new Dispenser(transactions, 65),
+                              new Dispenser(transactions, 45),
+                              new Dispenser(transactions, 85)};
+      VendingEngine engine = new VendingEngine(register);
+      long expected = 0;
+      int sales = 0, refunds = 0;
+
+      long begin = System.nanoTime();
+      for (int t = 0; t < transactions; t++){
+         Dispenser product = products[t & 3];
+         VendingEngine.Outcome outcome = engine.select(product);
+         int coin = 0;
+         while (outcome == VendingEngine.Outcome.INSERT_MORE){
+            if ((t & 7) == 7 && coin > 0)
+               outcome = engine.cancel();
+            else
+               outcome = engine.insertCoins(COINS[(t + coin++) & 3]);
+         }
+         if (outcome == VendingEngine.Outcome.SALE){
+            expected += engine.lastAmount();
+            sales++;
+         }
+         else
+            refunds++;
+      }
+      long elapsed = System.nanoTime() - begin;
+
+      int left = 0;
+      for (int i = 0; i < products.length; i++)
+         left += products[i].getCount();
+      if (register.currentBalance() != expected
+              || left != 4 * transactions - sales)
+         throw new IllegalStateException("engine state mismatch");
+
+      System.out.printf("%,d transactions (%,d sales, %,d refunds): "
+                        + "%,.0f transactions/sec%n",
+                        transactions, sales, refunds,
+                        transactions / (elapsed / 1e9));
+   }
+
+   public static void main(String[] args){
+      int transactions = args.length > 0 ? Integer.parseInt(args[0])
+                                         : 20000000;
+      run(transactions);     //warm up
+      run(transactions);
+   }
+}
@@ -1,14 +1,20 @@
 //class cashRegister
 
+import java.util.concurrent.atomic.LongAdder;
+
 public class cashRegister{
-    private static int cashOnHand;   //variable to store the cash
-                              //in the register
+    private final LongAdder cashOnHand = new LongAdder();
+                              //variable to store the cash
+                              //in the register; deposits are
+                              //spread over padded cells so that
+                              //concurrent terminals do not fight
+                              //over a single counter
 
         //Default constructor to set the cash
         //in the register to 500 cents
         //Postcondition: cashOnHand = 500
     public cashRegister(){
-        cashOnHand = 500;
+        cashOnHand.add(500);
     }
 
         //Constructor with parameters to set the cash in
@@ -16,23 +22,25 @@ public class cashRegister{
         //Postcondition: cashOnHand = cashIn
     public cashRegister(int cashIn){
        if (cashIn >= 0)
-             cashOnHand = cashIn;
+             cashOnHand.add(cashIn);
        else
-          cashOnHand = 500;
+          cashOnHand.add(500);
     }
 
         //Method to show the current amount in the cash register
+        //The value is exact once deposits in progress have
+        //completed. It is a long number of cents so that the
+        //total of many sales cannot overflow.
         //Postcondition: The value of the instance variable
         //               cashOnHand is returned.
-    public int currentBalance(){
-         return cashOnHand;
+    public long currentBalance(){
+         return cashOnHand.sum();
     }
 
         //Method to receives the amount deposited by
         //the customer and updates the amount in the register
         //Postcondition: cashOnHand = cashOnHand + amountIn
-    public static void acceptAmount(int amountIn){
-         cashOnHand = cashOnHand + amountIn;
+    public void acceptAmount(int amountIn){
+         cashOnHand.add(amountIn);
     }
 }
-
@@ -0,0 +1,114 @@
+/*
+ * ClockDashboard.java - a world-time wall of BillsClocks in one window
+ *
+ * Where every BillsClock applet runs its own thread, the dashboard
+ * drives all of its clocks from one TickScheduler thread that wakes
+ * once per second, just after the second changes.
+ * Each tick moves the whole ClockWall and repaints the area that
+ * changed.
+ *
+ * HOW TO COMPILE: javac ClockDashboard.java
+ * HOW TO RUN: java ClockDashboard [size] [columns] [timezone ...]
+ *             e.g. java ClockDashboard 150 4 -8 -5 0 1 3 5.5 8 9
+ *             (timezones in decimal hours from GMT, - West/+ East;
+ *             default: one clock per hour from GMT-11 to GMT+12)
+ */
+
+import java.awt.*;
+import java.awt.event.*;
+
+public class ClockDashboard extends Canvas
+{
+    private static final long serialVersionUID = 1L;
+
+    final ClockWall wall;
+    final TimeSource timeSource;
+
+    final TickScheduler scheduler;
+
+    public ClockDashboard(ClockWall wall)
+    {
+        this(wall, TimeSource.SYSTEM);
+    }
+
+    public ClockDashboard(ClockWall wall, TimeSource timeSource)
+    {
+        this.wall=wall;
+        this.timeSource=timeSource;
+        scheduler=TickScheduler.perSecond(timeSource, this::tick);
+        setPreferredSize(new Dimension(wall.width, wall.height));
+    }
+
+    //Starts ticking on the next second boundary.
+    public void start()
+    {
+        scheduler.start("clock-dashboard");
+    }
+
+    public void stop()
+    {
+        scheduler.stop();
+    }
+
+    private void tick(long millis)
+    {
+        Rectangle dirty;
+        synchronized(wall){
+            dirty=wall.tick(millis);
+        }
+        if(dirty != null)
+            repaint(dirty.x, dirty.y, dirty.width, dirty.height);
+    }
+
+    public void paint(Graphics g)
+    {
+        synchronized(wall){
+            g.drawImage(wall.image, 0, 0, null);
+        }
+    }
+
+    public void update(Graphics g)
+    {
+        paint(g);       //The wall image covers everything; no need to clear
+    }
+
+    //The default wall: one clock per whole hour from GMT-11 to GMT+12.
+    static double[] defaultZones()
+    {
+        double zones[]=new double[24];
+        for(int i=0;i<zones.length;i++)
+            zones[i]=i-11;
+        return zones;
+    }
+
+    public static void main(String args[])
+    {
+        int size=(args.length > 0)? Integer.parseInt(args[0]) : 120;
+        int columns=(args.length > 1)? Integer.parseInt(args[1]) : 6;
+        double zones[];
+        if(args.length > 2){
+            zones=new double[args.length-2];
+            for(int i=0;i<zones.length;i++)
+                zones[i]=Double.valueOf(args[i+2]).doubleValue();
+        }
+        else
+            zones=defaultZones();
+
+        ClockWall wall=new ClockWall(size, columns, zones);
+        wall.tick(TimeSource.SYSTEM.currentTimeMillis());
+
+        final ClockDashboard dashboard=new ClockDashboard(wall);
+        final Frame frame=new Frame("World Time");
+        frame.add(dashboard);
+        frame.pack();
+        frame.setResizable(false);
+        frame.addWindowListener(new WindowAdapter(){
+            public void windowClosing(WindowEvent e){
+                dashboard.stop();
+                frame.dispose();
+            }
+        });
+        frame.setVisible(true);
+        dashboard.start();
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * ClockFace.java - the static dial of BillsClock
+ *
+ * Everything on the clock that does not move -- background, case, face,
+ * graduations, the 12 o'clock triangle, the hour marks, the logo text
+ * and logo image -- is drawn once into an image layer. Clocks with the
+ * same size, colors, text and images share one layer, so a wall of
+ * identical clocks renders its dial once. Each frame only copies the
+ * part of the layer that the hands uncover.
+ */
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.*;
+import java.util.concurrent.*;
+
+class ClockFace
+{
+    static final int CACHE_SIZE=16;             //Layers kept for reuse
+
+    //Layers by configuration, least recently used first. A layer is
+    //rendered by the first clock to ask for it, outside the map's lock;
+    //clocks asking for it meanwhile wait on its task.
+    private static final Map<Key,FutureTask<BufferedImage>> layers =
+        new LinkedHashMap<Key,FutureTask<BufferedImage>>(CACHE_SIZE,0.75f,true){
+            protected boolean removeEldestEntry(Map.Entry<Key,FutureTask<BufferedImage>> eldest){
+                return size() > CACHE_SIZE;
+            }
+        };
+
+    //Clock size and position, in pixels.
+    final int width, height;
+    final int x1, y1;           // Center point of clock
+    final int minDimension;     // Ensure a round clock if not square.
+    final int originX;          // Upper left corner of a square enclosing the clock
+    final int originY;
+
+    final Color bgColor, faceColor, textColor, caseColor, trimColor;
+    final String logoString;
+    final Image background, logo;       // Optional images, may be null
+    final Font font;
+
+    private final Key key;
+    private volatile BufferedImage layer;
+
+    public ClockFace(int width, int height,
+                     Color bgColor, Color faceColor, Color textColor,
+                     Color caseColor, Color trimColor,
+                     String logoString, Image background, Image logo)
+    {
+        this.width=width;
+        this.height=height;
+        this.bgColor=bgColor;
+        this.faceColor=faceColor;
+        this.textColor=textColor;
+        this.caseColor=caseColor;
+        this.trimColor=trimColor;
+        this.logoString=logoString;
+        this.background=background;
+        this.logo=logo;
+
+        x1=width/2;
+        y1=height/2;
+        minDimension=Math.min(width, height);
+        originX=(width-minDimension)/2;
+        originY=(height-minDimension)/2;
+
+        font=new Font("TXT",Font.BOLD,size(10));
+        key=new Key(this);
+    }
+
+    // This lets us create clocks of various sizes, but with the same
+    // proportions.
+    public int size(int percent)
+    {
+        return (int)((double)percent/100.0 * (double)minDimension);
+    }
+
+    //Largest logo image the dial has room for, inside the face below
+    //the logo text.
+    public int logoWidth()
+    {
+        return minDimension-size(10);
+    }
+
+    public int logoHeight()
+    {
+        return minDimension/2-size(22);
+    }
+
+    //The rendered dial, from the shared cache if another clock with the
+    //same configuration already rendered it.
+    public BufferedImage getLayer()
+    {
+        BufferedImage rendered=layer;
+        if(rendered == null){
+            FutureTask<BufferedImage> task;
+            synchronized(layers){
+                task=layers.get(key);
+                if(task == null){
+                    task=new FutureTask<BufferedImage>(this::renderLayer);
+                    layers.put(key,task);
+                }
+            }
+            task.run();         //Does nothing if another clock ran it
+            try{
+                rendered=task.get();
+            } catch (ExecutionException e) {
+                synchronized(layers){           //Let a later call retry
+                    layers.remove(key,task);
+                }
+                if(e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException)e.getCause();
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted waiting for the dial", e);
+            }
+            layer=rendered;     //Only once fully drawn; other threads may read it
+        }
+        return rendered;
+    }
+
+    private BufferedImage renderLayer()
+    {
+        BufferedImage rendered=new BufferedImage(width,height,BufferedImage.TYPE_INT_RGB);
+        Graphics g=rendered.getGraphics();
+        render(g);
+        g.dispose();
+        return rendered;
+    }
+
+    //Copies the dial inside the given area onto g, covering whatever
+    //was drawn there.
+    public void restore(Graphics g, int x, int y, int w, int h)
+    {
+        g.drawImage(getLayer(), x, y, x+w, y+h, x, y, x+w, y+h, null);
+    }
+
+    public void restore(Graphics g)
+    {
+        g.drawImage(getLayer(), 0, 0, null);
+    }
+
+    //Draws the dial from scratch, without the cache.
+    public void render(Graphics g)
+    {
+        int i,j,x,y,x0,y0,x2,y2;
+
+        if(background == null){
+            g.setColor(bgColor);
+            g.fillRect(0,0,width,height);
+        }
+        else
+            g.drawImage(background, 0, 0, null);
+
+        g.setColor(caseColor);
+
+        //Shrink one pixel so we don't clip anything off...
+        g.fillOval(  originX+1,
+                     originY+1,
+                     minDimension-2,
+                     minDimension-2);
+
+        g.setColor(faceColor);
+        g.fillOval(  originX + size(5),
+                     originY + size(5),
+                     minDimension - size(10),
+                     minDimension - size(10));
+
+        g.setColor(trimColor);
+        g.drawOval(  originX+1,
+                     originY+1,
+                     minDimension-2,
+                     minDimension-2);
+
+        g.drawOval(  originX + size(5),
+                     originY + size(5),
+                     minDimension - size(10),
+                     minDimension - size(10));
+
+        g.setColor(textColor);
+
+        //Draw graduations, a longer index every fifth mark...
+        TrigTable minutes=TrigTable.MINUTES;
+        for(i=0;i<60;i++){
+            if(i==0 || (i>=5 && i%5 == 0)){
+                x0=(int)(x1+size(40)*minutes.sin(i));
+                y0=(int)(y1+size(40)*minutes.cos(i));
+            }
+            else{
+                x0=(int)(x1+size(42)*minutes.sin(i));
+                y0=(int)(y1+size(42)*minutes.cos(i));
+            }
+            x2=(int)(x1+size(44)*minutes.sin(i));
+            y2=(int)(y1+size(44)*minutes.cos(i));
+            g.drawLine(x0,y0,x2,y2);
+        }
+
+        //Hour marks: bars at 9 and 6, the triangle at 12, dots elsewhere.
+        g.fillRect(originX+size(12),y1-size(2),size(10),size(4));
+        g.fillRect(x1-size(2),originY + minDimension-size(22),size(4),size(10));
+
+        int xPoints[]={x1, x1-size(3), x1+size(3)};
+        int yPoints[]={y1-size(27), y1-size(38), y1-size(38)};
+        g.fillPolygon( xPoints, yPoints, 3);
+
+        for(i=1;i<12;i+=3)
+            for(j=i;j<i+2;j++){
+                x=(int)(x1+TrigTable.DIAL.sin(j)*size(35));
+                y=(int)(y1-TrigTable.DIAL.cos(j)*size(35));
+                g.fillOval(x-size(3),y-size(3),size(6),size(6));
+            }
+
+        //Paint our logo...
+        g.setFont(font);
+        FontMetrics fm=g.getFontMetrics();
+        g.drawString(logoString,x1-fm.stringWidth(logoString)/2,y1-size(12));
+
+        if(logo != null){
+            x = originX + (minDimension-logo.getWidth(null))/2;
+            y = y1 + (minDimension/2 - size(22) - logo.getHeight(null))/2;
+            if(x > 0 && y > 0)
+                g.drawImage(logo, x, y, null);
+        }
+    }
+
+    //Everything the dial's pixels depend on. Images compare by identity.
+    private static final class Key
+    {
+        private final Object[] parts;
+
+        Key(ClockFace face)
+        {
+            parts=new Object[]{face.width, face.height, face.bgColor,
+                               face.faceColor, face.textColor, face.caseColor,
+                               face.trimColor, face.logoString,
+                               new Identity(face.background),
+                               new Identity(face.logo)};
+        }
+
+        public boolean equals(Object other)
+        {
+            return other instanceof Key && Arrays.equals(parts, ((Key)other).parts);
+        }
+
+        public int hashCode()
+        {
+            return Arrays.hashCode(parts);
+        }
+    }
+
+    private static final class Identity
+    {
+        private final Object object;
+
+        Identity(Object object)
+        {
+            this.object=object;
+        }
+
+        public boolean equals(Object other)
+        {
+            return other instanceof Identity && ((Identity)other).object == object;
+        }
+
+        public int hashCode()
+        {
+            return System.identityHashCode(object);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * ClockHand.java - a hand of BillsClock
+ *
+ * A polygon turned about the clock's center. Drawing at a position of
+ * the hand's dial looks its points up in a per-position cache; drawing
+ * at any other angle transforms them into scratch arrays.
+ */
+
+import java.awt.*;
+
+abstract class ClockHand
+{
+    protected int baseX[], baseY[];
+    protected int transX[],transY[];
+    protected int numberOfPoints;
+    protected Rectangle bounds;     //Box around transX/transY, null until
+                                    //the first transform
+
+    //The positions the hand stands at, and its points and bounds at
+    //each of them, computed the first time the hand gets there. Drawing
+    //at a position is then an array lookup.
+    protected TrigTable dial;
+    private int cacheX[][], cacheY[][];
+    private Rectangle cacheBounds[];
+    private Shape cacheOutline[];           //For anti-aliased drawing, made on first use
+    private int scratchX[], scratchY[];     //Points at any other angle
+
+    public ClockHand(int originX, int originY, int length,int thickness,int points){
+        this(originX,originY,length,thickness,points,TrigTable.MINUTES);
+    }
+
+    public ClockHand(int originX, int originY, int length,int thickness,int points,
+                     TrigTable dial){
+        baseX= new int[points]; baseY=new int[points];
+        scratchX= new int[points]; scratchY=new int[points];
+        initiallizePoints(originX,originY,length,thickness);
+        numberOfPoints=points;
+        this.dial=dial;
+        cacheX=new int[dial.steps][];
+        cacheY=new int[dial.steps][];
+        cacheBounds=new Rectangle[dial.steps];
+    }
+
+    abstract protected void initiallizePoints(  int originX,
+                                                int originY,
+                                                int length,
+                                                int thickness);
+
+    abstract public void draw(Color color, double angle, Graphics g);
+
+    //Draws the hand at a position of its dial, e.g. the second for a
+    //SweepHand on TrigTable.MINUTES.
+    abstract public void draw(Color color, int position, Graphics g);
+
+    //Draws the hand's outline at a position of its dial, with the
+    //points kept to sub-pixel precision, for anti-aliased drawing.
+    abstract public void drawSmooth(Color color, int position, Graphics2D g);
+
+    //The hand's shape through the given points.
+    abstract protected Shape outline(float x[], float y[]);
+
+    protected void transform(double angle)
+    {
+        transX=scratchX; transY=scratchY;
+        for(int i=0;i<numberOfPoints;i++){
+            transX[i]=(int)(    (baseX[0]-baseX[i]) * Math.cos(angle) -
+                                (baseY[0]-baseY[i]) * Math.sin(angle) +
+                                 baseX[0]);
+
+            transY[i]=(int)(    (baseX[0]-baseX[i]) * Math.sin(angle) +
+                                (baseY[0]-baseY[i]) * Math.cos(angle) +
+                                 baseY[0]);
+        }
+        bounds=measure(transX,transY);
+    }
+
+    protected void transform(int position)
+    {
+        int p=Math.floorMod(position,dial.steps);
+        if(cacheX[p] == null){
+            double cos=dial.cos(p), sin=dial.sin(p);
+            int x[]=new int[numberOfPoints], y[]=new int[numberOfPoints];
+            for(int i=0;i<numberOfPoints;i++){
+                x[i]=(int)( (baseX[0]-baseX[i]) * cos -
+                            (baseY[0]-baseY[i]) * sin +
+                             baseX[0]);
+
+                y[i]=(int)( (baseX[0]-baseX[i]) * sin +
+                            (baseY[0]-baseY[i]) * cos +
+                             baseY[0]);
+            }
+            cacheBounds[p]=measure(x,y);
+            cacheX[p]=x;
+            cacheY[p]=y;
+        }
+        transX=cacheX[p];
+        transY=cacheY[p];
+        bounds=cacheBounds[p];
+    }
+
+    //The hand's outline at a position of its dial, computed the first
+    //time the hand gets there. Points are placed at pixel centers, where
+    //the integer points of transform() fall.
+    protected Shape outlineAt(int position)
+    {
+        int p=Math.floorMod(position,dial.steps);
+        if(cacheOutline == null)
+            cacheOutline=new Shape[dial.steps];
+        if(cacheOutline[p] == null){
+            double cos=dial.cos(p), sin=dial.sin(p);
+            float x[]=new float[numberOfPoints], y[]=new float[numberOfPoints];
+            for(int i=0;i<numberOfPoints;i++){
+                x[i]=(float)(   (baseX[0]-baseX[i]) * cos -
+                                (baseY[0]-baseY[i]) * sin +
+                                 baseX[0] + 0.5);
+
+                y[i]=(float)(   (baseX[0]-baseX[i]) * sin +
+                                (baseY[0]-baseY[i]) * cos +
+                                 baseY[0] + 0.5);
+            }
+            cacheOutline[p]=outline(x,y);
+        }
+        return cacheOutline[p];
+    }
+
+    private Rectangle measure(int x[], int y[])
+    {
+        int minX=x[0], maxX=x[0], minY=y[0], maxY=y[0];
+        for(int i=1;i<numberOfPoints;i++){
+            minX=Math.min(minX,x[i]); maxX=Math.max(maxX,x[i]);
+            minY=Math.min(minY,y[i]); maxY=Math.max(maxY,y[i]);
+        }
+        return new Rectangle(minX,minY,maxX-minX+1,maxY-minY+1);
+    }
+
+    //Area covered by the hand as last drawn or measured, or null.
+    public Rectangle getBounds()
+    {
+        return (bounds == null)? null : new Rectangle(bounds);
+    }
+
+    //Area the hand would cover at the given angle.
+    public Rectangle boundsAt(double angle)
+    {
+        transform(angle);
+        return new Rectangle(bounds);
+    }
+
+    //Area the hand would cover at a position of its dial.
+    public Rectangle boundsAt(int position)
+    {
+        transform(position);
+        return new Rectangle(bounds);
+    }
+}
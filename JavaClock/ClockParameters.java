@@ -0,0 +1,204 @@
+/*
+ * ClockParameters.java - the user options of a BillsClock
+ *
+ * Reads the parameters listed in INFO through any lookup function: the
+ * applet passes its getParameter, the headless renderer a map of
+ * name=value arguments. Missing parameters keep the defaults below.
+ */
+
+import java.awt.*;
+import java.net.*;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+class ClockParameters
+{
+    static final String JAVEX="J***X";          //Default text on clock face
+
+    //Users' parameters - self-explanatory?
+    static final String[][] INFO = {
+        {"width",       "int",      "width of the applet, in pixels"},
+        {"height",      "int",      "height of the applet, in pixels"},
+        {"bgColor",     "string",   "hex color triplet of the background, i.e. 000000 for black <black>"},
+        {"faceColor",   "string",   "hex color triplet of clock face, i.e. 000000 for black <black>"},
+        {"sweepColor",  "string",   "hex color triplet of seconds hand, i.e. FF0000 for red <red>"},
+        {"minuteColor", "string",   "hex color triplet of minutes hand, i.e. C0C0C0 for lt.gray <lt.gray>"},
+        {"hourColor",   "string",   "hex color triplet of hours hand, i.e. FFFFFF for white <white>"},
+        {"textColor",   "string",   "hex color triplet of numbers, etc., i.e. FFFFFF for white <white>"},
+        {"caseColor",   "string",   "hex color triplet of case, i.e. 000000 for black <black>"},
+        {"trimColor",   "string",   "hex color triplet of case outliners, i.e. C0C0C0 for lt.gray <lt.gray>"},
+        {"bgImageURL",  "string",   "URL of background image, if any <null>"},
+        {"logoString",  "string",   "Name to display on watch face <JAVEX>"},
+        {"logoImageURL","string",   "URL of logo image to display on watch face <null>"},
+        {"timezone",    "real",     "Timezone difference from GMT (decimal hours,- West/+ East)<0>"},
+        {"localonly",   "int",      "Non-zero will cause clock to display current local time <0>"},
+        {"smooth",      "int",      "Frames/sec of a smooth-sweeping, anti-aliased seconds hand, 30-120; 0 ticks each second <0>"}
+    };
+
+    static final int MIN_SMOOTH=30, MAX_SMOOTH=120;     //Smooth sweep frame rates
+
+    int width = 100;
+    int height = 100;
+    Color bgColor = new Color(0,0,0);
+    Color faceColor = new Color(0,0,0);
+    Color sweepColor = new Color(255,0,0);
+    Color minuteColor = new Color (192,192,192);
+    Color hourColor = new Color (255,255,255);
+    Color textColor = new Color (255,255,255);
+    Color caseColor = new Color (0,0,0);
+    Color trimColor = new Color (192,192,192);
+    String logoString = JAVEX;
+    String bgImageURL = null;
+    String logoImageURL = null;
+    double tzDifference = 0;
+    boolean localOnly = false;
+    int smoothFrames = 0;
+
+    //Reads every parameter of INFO from lookup, which returns null for
+    //a parameter that was not given. Names are looked up in upper case,
+    //as BillsClock has always done.
+    static ClockParameters parse(Function<String,String> lookup)
+    {
+        ClockParameters p = new ClockParameters();
+
+        String paramString    = lookup.apply( "WIDTH"  );
+        if( paramString != null )
+            p.width = Integer.valueOf(paramString).intValue();
+
+        paramString   = lookup.apply( "HEIGHT" );
+        if( paramString != null )
+            p.height = Integer.valueOf(paramString).intValue();
+
+        paramString   = lookup.apply( "TIMEZONE" );
+        if( paramString != null )
+            p.tzDifference = Double.valueOf(paramString).doubleValue();
+
+        paramString  =   lookup.apply( "LOCALONLY" );
+        if( paramString != null && Integer.valueOf(paramString).intValue() != 0){
+            p.localOnly=true;
+            p.tzDifference=0.;
+        }
+
+        paramString  =   lookup.apply( "SMOOTH" );
+        if( paramString != null ){
+            int frames = Integer.valueOf(paramString).intValue();
+            p.smoothFrames = (frames <= 0)? 0 :
+                             Math.max(MIN_SMOOTH, Math.min(MAX_SMOOTH, frames));
+        }
+
+        paramString    = lookup.apply( "BGCOLOR");
+        if( paramString != null )
+            p.bgColor=parseColorString(paramString);
+
+        paramString    = lookup.apply( "FACECOLOR");
+        if( paramString != null )
+            p.faceColor=parseColorString(paramString);
+
+        paramString    = lookup.apply( "SWEEPCOLOR");
+        if( paramString != null )
+            p.sweepColor=parseColorString(paramString);
+
+        paramString    = lookup.apply( "MINUTECOLOR");
+        if( paramString != null )
+            p.minuteColor=parseColorString(paramString);
+
+        paramString    = lookup.apply( "HOURCOLOR");
+        if( paramString != null )
+            p.hourColor=parseColorString(paramString);
+
+        paramString    = lookup.apply( "TEXTCOLOR");
+        if( paramString != null )
+            p.textColor=parseColorString(paramString);
+
+        paramString    = lookup.apply( "CASECOLOR");
+        if( paramString != null )
+            p.caseColor=parseColorString(paramString);
+
+        paramString    = lookup.apply( "TRIMCOLOR");
+        if( paramString != null )
+            p.trimColor=parseColorString(paramString);
+
+        paramString  = lookup.apply( "LOGOSTRING");
+        if( paramString != null )
+            p.logoString= (paramString.length() > 8)?
+                          paramString.substring(0,8) : paramString;   //Max 8 characters!
+
+        p.bgImageURL  = lookup.apply("BGIMAGEURL");
+        p.logoImageURL = lookup.apply("LOGOIMAGEURL");
+
+        return p;
+    }
+
+    //Parameters from name=value pairs; names ignore case.
+    static ClockParameters parse(Map<String,String> values)
+    {
+        final Map<String,String> byName = new TreeMap<String,String>(String.CASE_INSENSITIVE_ORDER);
+        byName.putAll(values);
+        return parse(byName::get);
+    }
+
+    static Color parseColorString(String colorString)
+    {
+        if(colorString.length()==6){
+            int R = Integer.valueOf(colorString.substring(0,2),16).intValue();
+            int G = Integer.valueOf(colorString.substring(2,4),16).intValue();
+            int B = Integer.valueOf(colorString.substring(4,6),16).intValue();
+            return new Color(R,G,B);
+        }
+        else return Color.lightGray;
+    }
+
+    ClockFace createFace(Image background, Image logo)
+    {
+        return new ClockFace(width, height, bgColor, faceColor, textColor,
+                             caseColor, trimColor, logoString, background, logo);
+    }
+
+    //Starts loading the background image, relative to base, stretched
+    //to the clock; null if there is none.
+    ImageCache.Entry requestBackground(URL base) throws MalformedURLException
+    {
+        if(bgImageURL == null)
+            return null;
+        return ImageCache.stretched(new URL(base, bgImageURL), width, height);
+    }
+
+    //Starts loading the logo image, relative to base, fitted to the
+    //room on the dial; null if there is none.
+    ImageCache.Entry requestLogo(URL base) throws MalformedURLException
+    {
+        if(logoImageURL == null)
+            return null;
+        ClockFace face=createFace(null, null);
+        return ImageCache.fitted(new URL(base, logoImageURL),
+                                 face.logoWidth(), face.logoHeight());
+    }
+
+    //The face with whichever of the images have loaded so far.
+    ClockFace currentFace(ImageCache.Entry background, ImageCache.Entry logo)
+    {
+        return createFace((background == null)? null : background.getNow(),
+                          (logo == null)? null : logo.getNow());
+    }
+
+    ClockRenderer createRenderer(ClockFace face)
+    {
+        return new ClockRenderer(face, sweepColor, minuteColor, hourColor, smoothFrames);
+    }
+
+    //Wakes the clock for each frame: once a second, or at the smooth
+    //sweep's frame rate. A tick that runs long drops the frames it
+    //overran rather than falling behind.
+    TickScheduler createScheduler(TimeSource timeSource, LongConsumer listener)
+    {
+        return (smoothFrames == 0)? TickScheduler.perSecond(timeSource, listener)
+                                  : TickScheduler.perFrame(timeSource, smoothFrames, listener);
+    }
+
+    //The time this clock shows: local, or at its GMT offset.
+    ClockTime newTime()
+    {
+        return localOnly? ClockTime.local() : new ClockTime(tzDifference);
+    }
+}
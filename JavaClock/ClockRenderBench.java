@@ -0,0 +1,69 @@
+/*
+ * ClockRenderBench.java - frames/sec of the BillsClock renderer
+ *
+ * Renders clocks of growing size into an off-screen image, headless,
+ * three ways: drawing the whole dial and hands every frame (as paint()
+ * used to), copying the cached dial layer and drawing the hands, and
+ * redrawing only the area of the hands that moved. The clock advances
+ * one second per frame.
+ *
+ * HOW TO COMPILE: javac ClockRenderBench.java
+ * HOW TO RUN: java -Djava.awt.headless=true ClockRenderBench [frames]
+ */
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+public class ClockRenderBench
+{
+    static final int SIZES[]={100, 400, 1000, 2000};
+
+    static final int FULL=0, CACHED=1, DIRTY=2;
+    static final String NAMES[]={"full dial", "cached dial", "dirty area"};
+
+    static double framesPerSecond(int size, int mode, int frames)
+    {
+        ClockFace face=new ClockFace(size, size, Color.black, Color.black,
+                                     Color.white, Color.black, Color.lightGray,
+                                     "J***X", null, null);
+        ClockRenderer renderer=new ClockRenderer(face, Color.red,
+                                                 Color.lightGray, Color.white);
+        BufferedImage image=new BufferedImage(size,size,BufferedImage.TYPE_INT_RGB);
+        Graphics g=image.getGraphics();
+        FakeTimeSource clock=new FakeTimeSource(System.currentTimeMillis());
+        ClockTime time=ClockTime.local();
+        time.set(clock.currentTimeMillis());
+
+        renderer.paint(g, time);   //Renders and caches the layer
+        long begin=System.nanoTime();
+        for(int i=1;i<=frames;i++){
+            clock.advance(1000);
+            time.set(clock.currentTimeMillis());
+            if(mode == FULL){
+                face.render(g);
+                renderer.drawHands(g, time);
+            }
+            else if(mode == CACHED)
+                renderer.paint(g, time);
+            else
+                renderer.update(g, time);
+        }
+        long elapsed=System.nanoTime()-begin;
+        g.dispose();
+        return frames/(elapsed/1e9);
+    }
+
+    public static void main(String args[])
+    {
+        int frames=(args.length > 0)? Integer.parseInt(args[0]) : 500;
+
+        for(int mode=FULL;mode<=DIRTY;mode++)   //Warm up
+            framesPerSecond(200, mode, frames);
+
+        for(int i=0;i<SIZES.length;i++)
+            for(int mode=FULL;mode<=DIRTY;mode++)
+                System.out.printf("%4dx%-4d %-12s %,10.0f frames/sec%n",
+                                  SIZES[i], SIZES[i], NAMES[mode],
+                                  framesPerSecond(SIZES[i], mode, frames));
+    }
+}
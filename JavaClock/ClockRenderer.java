@@ -0,0 +1,241 @@
+/*
+ * ClockRenderer.java - draws a BillsClock frame
+ *
+ * The dial comes from the cached ClockFace layer; only the date and the
+ * hands are drawn per frame. The renderer remembers where it last drew
+ * each hand, so a frame can restore and redraw just the area of the
+ * hands that moved.
+ *
+ * In smooth-sweep mode the seconds hand moves every frame, by the
+ * fraction of a second that has passed, instead of jumping once a
+ * second, and the hands are drawn anti-aliased. The sweep's dial then
+ * has one position per frame: 3600 at 60 frames/sec. Each position's
+ * outline is computed once and cached in the hand.
+ */
+
+import java.awt.*;
+
+class ClockRenderer
+{
+    final ClockFace face;
+
+    final Color sweepColor, minuteColor, hourColor;
+
+    //Frames per second of the smooth sweep, or 0 for a hand that ticks
+    //once a second.
+    final int smoothFrames;
+
+    //The clock's seconds, minutes, and hours hands.
+    final SweepHand sweep;
+    final HmHand  minuteHand,
+                  hourHand;
+
+    //The last positions used to draw the hands; the hour hand has 720
+    //positions, one per minute of its turn, and the sweep 60, or one per
+    //frame when smooth.
+    int lastHour=-1;
+    int lastMinute=-1,lastSweep=-1;
+    int lastDate=-1;
+
+    public ClockRenderer(ClockFace face, Color sweepColor,
+                         Color minuteColor, Color hourColor)
+    {
+        this(face, sweepColor, minuteColor, hourColor, 0);
+    }
+
+    //A renderer sweeping the seconds hand smoothly at smoothFrames frames
+    //per second, if not 0.
+    public ClockRenderer(ClockFace face, Color sweepColor,
+                         Color minuteColor, Color hourColor, int smoothFrames)
+    {
+        if(smoothFrames < 0)
+            throw new IllegalArgumentException("smoothFrames: "+smoothFrames);
+        this.face=face;
+        this.sweepColor=sweepColor;
+        this.minuteColor=minuteColor;
+        this.hourColor=hourColor;
+        this.smoothFrames=smoothFrames;
+
+        sweep=new SweepHand(face.x1,face.y1,face.size(40),3,
+                            (smoothFrames == 0)? TrigTable.MINUTES : new TrigTable(60*smoothFrames));
+        minuteHand=new HmHand(face.x1,face.y1,face.size(40),face.size(6),6);
+        hourHand=new HmHand(face.x1,face.y1,face.size(25),face.size(8),6,
+                              TrigTable.HOURS);
+    }
+
+    //A renderer for another clock of the same face and colors. The
+    //hands, and their vertex caches, are shared; the two renderers must
+    //draw from the same thread.
+    public ClockRenderer(ClockRenderer prototype)
+    {
+        face=prototype.face;
+        sweepColor=prototype.sweepColor;
+        minuteColor=prototype.minuteColor;
+        hourColor=prototype.hourColor;
+        smoothFrames=prototype.smoothFrames;
+        sweep=prototype.sweep;
+        minuteHand=prototype.minuteHand;
+        hourHand=prototype.hourHand;
+    }
+
+    //Draws the whole clock at the given time.
+    public void paint(Graphics g, ClockTime time)
+    {
+        face.restore(g);
+        drawHands(g, time);
+    }
+
+    //Draws what changed since the last frame and returns the area
+    //drawn, or null if nothing moved. A change of day redraws the whole
+    //clock.
+    public Rectangle update(Graphics g, ClockTime time)
+    {
+        if(time.getDate() != lastDate){
+            paint(g, time);
+            return new Rectangle(0,0,face.width,face.height);
+        }
+
+        Rectangle area=changedArea(time);
+        if(area == null)
+            return null;
+
+        Shape clip=g.getClip();
+        g.clipRect(area.x,area.y,area.width,area.height);
+        face.restore(g,area.x,area.y,area.width,area.height);
+        drawHands(g, time);
+        g.setClip(clip);
+        return area;
+    }
+
+    //Union of the old and new positions of every hand whose value
+    //changed since it was drawn, with the center caps, or null.
+    Rectangle changedArea(ClockTime time)
+    {
+        Rectangle area=null;
+
+        if(sweepPosition(time) != lastSweep){
+            area=union(area,boundsAt(sweep,lastSweep));
+            area=union(area,sweep.boundsAt(sweepPosition(time)));
+        }
+        if(time.getMinutes() != lastMinute){
+            area=union(area,boundsAt(minuteHand,lastMinute));
+            area=union(area,minuteHand.boundsAt(time.getMinutes()));
+        }
+        if(hourPosition(time) != lastHour){
+            area=union(area,boundsAt(hourHand,lastHour));
+            area=union(area,hourHand.boundsAt(hourPosition(time)));
+        }
+        if(area != null){
+            int cap=face.size(4);
+            area.add(new Rectangle(face.x1-cap,face.y1-cap,2*cap+1,2*cap+1));
+            area.grow(2,2);     //Polygon fills may reach a pixel past the points
+        }
+        return area;
+    }
+
+    //Position of the hour hand on TrigTable.HOURS.
+    static int hourPosition(ClockTime time)
+    {
+        return (time.getHours()%12)*60 + time.getMinutes();
+    }
+
+    //Position of the seconds hand on its dial: the second, or when
+    //smooth, the frame within the minute, numbered as the scheduler's
+    //ticks (TickScheduler.frameIndex), so each tick moves the hand.
+    int sweepPosition(ClockTime time)
+    {
+        if(smoothFrames == 0)
+            return time.getSeconds();
+        return time.getSeconds()*smoothFrames
+               + TickScheduler.frameOfSecond(time.getMillis(), smoothFrames);
+    }
+
+    //Where this renderer last drew a hand, or null if it never did.
+    private static Rectangle boundsAt(ClockHand hand, int position)
+    {
+        return (position < 0)? null : hand.boundsAt(position);
+    }
+
+    private static Rectangle union(Rectangle area, Rectangle r)
+    {
+        if(r == null)
+            return area;
+        if(area == null)
+            return r;
+        area.add(r);
+        return area;
+    }
+
+    //Draws the date box and the hands over the restored dial.
+    void drawHands(Graphics g, ClockTime time)
+    {
+        int x1=face.x1, y1=face.y1;
+
+        g.setColor(face.textColor);
+        g.setFont(face.font);
+        FontMetrics fm=g.getFontMetrics();
+
+        //Get the day of the month...
+        lastDate=time.getDate();
+        String day=Integer.toString(lastDate,10);
+
+        //Paint it...
+        g.drawString(   day,
+                        face.originX + face.minDimension-face.size(14)-fm.stringWidth(day),
+                        y1+face.size(5));
+
+        //and put a box around it.
+        g.drawRect( face.originX + face.minDimension-face.size(14)-fm.stringWidth(day)-face.size(2),
+                    y1-face.size(5)-face.size(2),
+                    fm.stringWidth(day)+face.size(4),
+                    face.size(10)+face.size(4));
+
+        lastHour=hourPosition(time);
+        lastMinute=time.getMinutes();
+        lastSweep=sweepPosition(time);
+        if(smoothFrames != 0){
+            drawSmooth((Graphics2D)g);
+            return;
+        }
+
+        hourHand.draw(hourColor,lastHour,g);
+        minuteHand.draw(minuteColor,lastMinute,g);
+
+        g.setColor(minuteColor);
+        g.fillOval(x1-face.size(4),y1-face.size(4),face.size(8),face.size(8));
+        g.setColor(sweepColor);
+        g.fillOval(x1-face.size(3),y1-face.size(3),face.size(6),face.size(6));
+
+        sweep.draw(sweepColor, lastSweep,g);
+
+        g.setColor(face.trimColor);
+        g.fillOval(x1-face.size(1),y1-face.size(1),face.size(2),face.size(2));
+    }
+
+    //The hands and caps of drawHands, anti-aliased, from the hands'
+    //cached outlines.
+    private void drawSmooth(Graphics2D g)
+    {
+        int x1=face.x1, y1=face.y1;
+        Object antialiasing=g.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+        Object strokeControl=g.getRenderingHint(RenderingHints.KEY_STROKE_CONTROL);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+
+        hourHand.drawSmooth(hourColor,lastHour,g);
+        minuteHand.drawSmooth(minuteColor,lastMinute,g);
+
+        g.setColor(minuteColor);
+        g.fillOval(x1-face.size(4),y1-face.size(4),face.size(8),face.size(8));
+        g.setColor(sweepColor);
+        g.fillOval(x1-face.size(3),y1-face.size(3),face.size(6),face.size(6));
+
+        sweep.drawSmooth(sweepColor,lastSweep,g);
+
+        g.setColor(face.trimColor);
+        g.fillOval(x1-face.size(1),y1-face.size(1),face.size(2),face.size(2));
+
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiasing);
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, strokeControl);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * ClockTime.java - the time shown by one clock
+ *
+ * Replaces the old Hms, a java.util.Date subclass allocated on every
+ * tick. A ClockTime is created once per clock for its zone and set in
+ * place from a TimeSource reading; the hour, minute, second and day of
+ * the month are plain int fields. The zone's UTC offset is looked up
+ * only when an offset transition (e.g. daylight saving) is crossed, and
+ * the day of the month only when the day changes, so set() does not
+ * allocate.
+ */
+
+import java.time.*;
+import java.time.zone.*;
+
+class ClockTime
+{
+    private static final long DAY=86400000L;
+
+    private final ZoneRules rules;      //null for a fixed offset
+
+    //Offset in force, and the instants between which it stays in force.
+    private long offsetMillis;
+    private long validFrom=Long.MAX_VALUE, validUntil=Long.MIN_VALUE;
+
+    private long epochDay=Long.MIN_VALUE;   //Local day of the fields below
+
+    private int hours, minutes, seconds, millis, date;
+
+    //Local time in the given zone, with its daylight saving changes.
+    ClockTime(ZoneId zone)
+    {
+        rules=zone.getRules();
+    }
+
+    //Time at a fixed offset from GMT, in decimal hours (- West/+ East),
+    //as BillsClock's TIMEZONE parameter.
+    ClockTime(double tzDifference)
+    {
+        rules=null;
+        offsetMillis=(long)(tzDifference*3600000.0);
+        validFrom=Long.MIN_VALUE;
+        validUntil=Long.MAX_VALUE;
+    }
+
+    //The viewer's local time.
+    static ClockTime local()
+    {
+        return new ClockTime(ZoneId.systemDefault());
+    }
+
+    //Sets the fields to the instant epochMillis.
+    void set(long epochMillis)
+    {
+        if(epochMillis < validFrom || epochMillis >= validUntil)
+            findOffset(epochMillis);
+
+        long local=epochMillis+offsetMillis;
+        long day=Math.floorDiv(local, DAY);
+        int ofDay=(int)(local-day*DAY);
+        if(day != epochDay){
+            epochDay=day;
+            date=LocalDate.ofEpochDay(day).getDayOfMonth();
+        }
+        millis=ofDay%1000;
+        ofDay/=1000;
+        seconds=ofDay%60;
+        ofDay/=60;
+        minutes=ofDay%60;
+        hours=ofDay/60;
+    }
+
+    private void findOffset(long epochMillis)
+    {
+        Instant instant=Instant.ofEpochMilli(epochMillis);
+        offsetMillis=rules.getOffset(instant).getTotalSeconds()*1000L;
+
+        ZoneOffsetTransition previous=rules.previousTransition(instant.plusMillis(1));
+        ZoneOffsetTransition next=rules.nextTransition(instant);
+        validFrom=(previous == null)? Long.MIN_VALUE : previous.toEpochSecond()*1000L;
+        validUntil=(next == null)? Long.MAX_VALUE : next.toEpochSecond()*1000L;
+    }
+
+    int getHours()      { return hours; }       //0-23
+    int getMinutes()    { return minutes; }
+    int getSeconds()    { return seconds; }
+    int getMillis()     { return millis; }      //Within the second
+    int getDate()       { return date; }        //Day of the month, 1-31
+}
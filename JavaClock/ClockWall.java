@@ -0,0 +1,116 @@
+/*
+ * ClockWall.java - many clocks in one off-screen image
+ *
+ * A grid of clocks, one per time zone, each with a label under it. All
+ * clocks share one ClockFace layer and one set of hands; each keeps its
+ * own ClockTime and last hand positions. tick() brings every clock to a given
+ * instant, drawing only the hands that moved, so one thread can drive
+ * the whole wall without any allocation per clock.
+ */
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+class ClockWall
+{
+    //One clock on the wall.
+    static final class Clock
+    {
+        final double tzDifference;      //Hours from GMT, as BillsClock's TIMEZONE
+        final int x, y;                 //Upper left corner on the wall
+        final ClockTime time;
+        final ClockRenderer renderer;
+
+        Clock(double tzDifference, int x, int y, ClockRenderer renderer)
+        {
+            this.tzDifference=tzDifference;
+            this.time=new ClockTime(tzDifference);
+            this.x=x;
+            this.y=y;
+            this.renderer=renderer;
+        }
+    }
+
+    final int clockSize, labelHeight;
+    final int columns, rows;
+    final int width, height;
+    final Clock clocks[];
+    final BufferedImage image;
+    private final Graphics offScrGC;
+
+    //Clocks of clockSize pixels for the given GMT offsets, in rows of
+    //columns, in BillsClock's default colors.
+    public ClockWall(int clockSize, int columns, double zones[])
+    {
+        this.clockSize=clockSize;
+        this.columns=Math.max(1,Math.min(columns,zones.length));
+        rows=(zones.length+this.columns-1)/this.columns;
+        labelHeight=Math.max(12,clockSize/8);
+        width=this.columns*clockSize;
+        height=rows*(clockSize+labelHeight);
+
+        Color textColor=new Color(255,255,255);
+        ClockFace face=new ClockFace(clockSize, clockSize, new Color(0,0,0),
+                                     new Color(0,0,0), textColor,
+                                     new Color(0,0,0), new Color(192,192,192),
+                                     BillsClock.JAVEX, null, null);
+        ClockRenderer prototype=new ClockRenderer(face, new Color(255,0,0),
+                                                  new Color(192,192,192),
+                                                  new Color(255,255,255));
+
+        image=new BufferedImage(Math.max(1,width),Math.max(1,height),
+                                BufferedImage.TYPE_INT_RGB);
+        offScrGC=image.getGraphics();
+        offScrGC.setColor(face.bgColor);
+        offScrGC.fillRect(0,0,width,height);
+        offScrGC.setFont(new Font("TXT",Font.BOLD,labelHeight*3/4));
+        FontMetrics fm=offScrGC.getFontMetrics();
+
+        clocks=new Clock[zones.length];
+        for(int i=0;i<zones.length;i++){
+            int x=(i%this.columns)*clockSize;
+            int y=(i/this.columns)*(clockSize+labelHeight);
+            clocks[i]=new Clock(zones[i], x, y,
+                                (i == 0)? prototype : new ClockRenderer(prototype));
+
+            String label=zoneName(zones[i]);
+            offScrGC.setColor(textColor);
+            offScrGC.drawString(label, x+(clockSize-fm.stringWidth(label))/2,
+                                y+clockSize+fm.getAscent());
+        }
+    }
+
+    //"GMT", "GMT+5:30", "GMT-4"...
+    static String zoneName(double tzDifference)
+    {
+        long minutes=Math.round(Math.abs(tzDifference)*60);
+        if(minutes == 0)
+            return "GMT";
+        String name="GMT"+((tzDifference < 0)? "-" : "+")+(minutes/60);
+        return (minutes%60 == 0)? name : name+":"+((minutes%60 < 10)? "0" : "")+(minutes%60);
+    }
+
+    //Moves every clock to the instant millis and returns the area of
+    //the wall that changed, or null.
+    public Rectangle tick(long millis)
+    {
+        Rectangle dirty=null;
+        for(int i=0;i<clocks.length;i++){
+            Clock clock=clocks[i];
+            clock.time.set(millis);
+
+            offScrGC.translate(clock.x, clock.y);
+            Rectangle area=clock.renderer.update(offScrGC, clock.time);
+            offScrGC.translate(-clock.x, -clock.y);
+
+            if(area != null){
+                area.translate(clock.x, clock.y);
+                if(dirty == null)
+                    dirty=area;
+                else
+                    dirty.add(area);
+            }
+        }
+        return dirty;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * DashboardBench.java - CPU cost of driving many clocks
+ *
+ * Runs walls of 1 to 1000 clocks for a few seconds of real time, two
+ * ways: one TickScheduler thread ticking the whole ClockWall at each
+ * second boundary (as ClockDashboard does), and one thread per clock
+ * waking every 500 ms (as each BillsClock applet used to). Reports process CPU
+ * time per second and per clock, and thread wakeups per second.
+ *
+ * HOW TO COMPILE: javac DashboardBench.java
+ * HOW TO RUN: java -Djava.awt.headless=true DashboardBench [seconds]
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DashboardBench
+{
+    static final int COUNTS[]={1, 10, 100, 1000};
+    static final int SIZE=100;
+
+    static long cpuTime()
+    {
+        return ((com.sun.management.OperatingSystemMXBean)
+                ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+
+    static double[] zones(int count)
+    {
+        double zones[]=new double[count];
+        for(int i=0;i<count;i++)
+            zones[i]=i%24-11;
+        return zones;
+    }
+
+    //One TickScheduler thread, one tick per second for the whole wall.
+    static long shared(int count, int seconds, AtomicLong wakeups) throws Exception
+    {
+        final ClockWall wall=new ClockWall(SIZE, 40, zones(count));
+        wall.tick(System.currentTimeMillis());
+        TickScheduler scheduler=TickScheduler.perSecond(TimeSource.SYSTEM, wall::tick);
+
+        long cpu=cpuTime();
+        scheduler.start("dashboard-bench");
+        Thread.sleep(seconds*1000L);
+        cpu=cpuTime()-cpu;
+        scheduler.stop();
+        wakeups.set(scheduler.getTicks()+scheduler.getSkipped());
+        return cpu;
+    }
+
+    //One thread per clock, each sleeping 500 ms between ticks.
+    static long perClock(int count, int seconds, AtomicLong wakeups) throws Exception
+    {
+        final double zones[]=zones(count);
+        final ClockWall walls[]=new ClockWall[count];
+        for(int i=0;i<count;i++){
+            walls[i]=new ClockWall(SIZE, 1, new double[]{zones[i]});
+            walls[i].tick(System.currentTimeMillis());
+        }
+        final boolean running[]={true};
+        Thread threads[]=new Thread[count];
+        for(int i=0;i<count;i++){
+            final ClockWall wall=walls[i];
+            threads[i]=new Thread(() -> {
+                while(running[0]){
+                    wakeups.incrementAndGet();
+                    wall.tick(System.currentTimeMillis());
+                    try{
+                        Thread.sleep(500);
+                    } catch (InterruptedException e) {}
+                }
+            });
+        }
+
+        long cpu=cpuTime();
+        for(int i=0;i<count;i++)
+            threads[i].start();
+        Thread.sleep(seconds*1000L);
+        cpu=cpuTime()-cpu;
+        running[0]=false;
+        for(int i=0;i<count;i++){
+            threads[i].interrupt();
+            threads[i].join();
+        }
+        return cpu;
+    }
+
+    static void report(String name, int count, int seconds, long cpu, AtomicLong wakeups)
+    {
+        System.out.printf("%-10s %5d clocks: %8.1f ms CPU/sec, %7.1f us/clock-sec, %7.0f wakeups/sec%n",
+                          name, count, cpu/1e6/seconds, cpu/1e3/seconds/count,
+                          (double)wakeups.get()/seconds);
+    }
+
+    public static void main(String args[]) throws Exception
+    {
+        int seconds=(args.length > 0)? Integer.parseInt(args[0]) : 3;
+
+        shared(100, 1, new AtomicLong());       //Warm up
+        perClock(100, 1, new AtomicLong());
+
+        for(int i=0;i<COUNTS.length;i++){
+            AtomicLong wakeups=new AtomicLong();
+            report("shared", COUNTS[i], seconds, shared(COUNTS[i], seconds, wakeups), wakeups);
+            wakeups=new AtomicLong();
+            report("per-clock", COUNTS[i], seconds, perClock(COUNTS[i], seconds, wakeups), wakeups);
+        }
+    }
+}
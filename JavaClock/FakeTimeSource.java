@@ -0,0 +1,31 @@
+/*
+ * FakeTimeSource.java - a clock that only moves when told to
+ *
+ * Drives renderers and schedulers from tests and benchmarks, so they
+ * get the same frames every run.
+ */
+
+class FakeTimeSource implements TimeSource
+{
+    private volatile long millis;
+
+    FakeTimeSource(long millis)
+    {
+        this.millis=millis;
+    }
+
+    public long currentTimeMillis()
+    {
+        return millis;
+    }
+
+    void setTime(long millis)
+    {
+        this.millis=millis;
+    }
+
+    void advance(long delta)
+    {
+        millis+=delta;
+    }
+}
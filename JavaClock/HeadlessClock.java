@@ -0,0 +1,204 @@
+/*
+ * HeadlessClock.java - BillsClock frames without an applet or a screen
+ *
+ * Renders the clock described by the applet's parameters (see
+ * ClockParameters.INFO) into BufferedImages, for signage and other
+ * server-side uses, and writes the frames as PNG files or as raw RGB
+ * (3 bytes per pixel, rows top to bottom) to files or a stream. Batch
+ * mode spreads runs of consecutive frames over a thread pool; each
+ * worker keeps its own image and hands and redraws only what moved
+ * from one frame to the next, while all workers share the dial layer.
+ *
+ * HOW TO COMPILE: javac HeadlessClock.java
+ * HOW TO RUN: java HeadlessClock [options] [name=value ...]
+ *   name=value   any applet parameter, e.g. width=200 timezone=5.5
+ *   -frames n    number of frames (1)
+ *   -start ms    time of the first frame, in ms since 1970 (now)
+ *   -step ms     time between frames (1000)
+ *   -threads n   worker threads (one per core)
+ *   -format f    png, raw or none (png); none only renders, for timing
+ *   -out path    directory for frame-000000.png... files, or - to write
+ *                every frame to standard output in order (.)
+ *   -base dir    directory the image URLs are relative to (.)
+ */
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.*;
+import javax.imageio.ImageIO;
+
+public class HeadlessClock
+{
+    static final int CHUNK=64;          //Consecutive frames per batch task
+
+    final ClockParameters params;
+    final ClockFace face;
+
+    public HeadlessClock(ClockParameters params, URL base) throws IOException
+    {
+        this.params=params;
+        face=params.createFace(waitFor(params.requestBackground(base)),
+                               waitFor(params.requestLogo(base)));
+    }
+
+    private static Image waitFor(ImageCache.Entry entry) throws IOException
+    {
+        return (entry == null)? null : entry.get();
+    }
+
+    //Renders frames of this clock into one reusable image. Not safe for
+    //use by several threads at once; make one per thread.
+    public class Canvas
+    {
+        final BufferedImage image=new BufferedImage(params.width, params.height,
+                                                    BufferedImage.TYPE_INT_RGB);
+        private final Graphics g=image.getGraphics();
+        private final ClockRenderer renderer=params.createRenderer(face);
+        private final ClockTime time=params.newTime();
+
+        //The clock at instant millis. The returned image is overwritten
+        //by the next call.
+        public BufferedImage render(long millis)
+        {
+            time.set(millis);
+            renderer.update(g, time);
+            return image;
+        }
+    }
+
+    public Canvas newCanvas()
+    {
+        return new Canvas();
+    }
+
+    static void write(BufferedImage image, String format, OutputStream out) throws IOException
+    {
+        if(format.equals("png")){
+            ImageIO.write(image, "png", out);
+        }
+        else if(format.equals("raw")){
+            int width=image.getWidth(), height=image.getHeight();
+            int row[]=new int[width];
+            byte bytes[]=new byte[3*width];
+            for(int y=0;y<height;y++){
+                image.getRGB(0, y, width, 1, row, 0, width);
+                for(int x=0;x<width;x++){
+                    bytes[3*x]=(byte)(row[x]>>16);
+                    bytes[3*x+1]=(byte)(row[x]>>8);
+                    bytes[3*x+2]=(byte)row[x];
+                }
+                out.write(bytes);
+            }
+        }
+        else if(!format.equals("none"))
+            throw new IllegalArgumentException("unknown format "+format);
+    }
+
+    //Renders count frames, step ms apart from start, on a pool of
+    //threads. With a directory, each frame is written to its own file;
+    //with out, every frame is written to out in order. At most two
+    //chunks per thread are in flight, so a long run to out is not held
+    //in memory. Returns the number of frames rendered.
+    public long batch(final long start, final long step, final int count, int threads,
+                      final String format, final File directory, OutputStream out)
+        throws IOException, InterruptedException
+    {
+        final ThreadLocal<Canvas> canvases=ThreadLocal.withInitial(this::newCanvas);
+        final String suffix=format.equals("png")? ".png" : ".rgb";
+        ExecutorService pool=Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<byte[]>> chunks=new ArrayDeque<Future<byte[]>>();
+        int next=0;                     //First frame of the next chunk to submit
+
+        try{
+            while(next < count || !chunks.isEmpty()){
+                while(next < count && chunks.size() < 2*threads){
+                    final int from=next, to=Math.min(count, next+CHUNK);
+                    next=to;
+                    chunks.add(pool.submit(() -> {
+                        Canvas canvas=canvases.get();
+                        ByteArrayOutputStream bytes=(directory == null)? new ByteArrayOutputStream() : null;
+                        for(int i=from;i<to;i++){
+                            BufferedImage image=canvas.render(start+i*step);
+                            if(directory == null){
+                                write(image, format, bytes);
+                            }
+                            else if(!format.equals("none")){
+                                File file=new File(directory, String.format("frame-%06d%s", i, suffix));
+                                try(OutputStream fileOut=new BufferedOutputStream(new FileOutputStream(file))){
+                                    write(image, format, fileOut);
+                                }
+                            }
+                        }
+                        return (bytes == null)? null : bytes.toByteArray();
+                    }));
+                }
+                byte bytes[]=chunks.poll().get();
+                if(bytes != null && out != null)
+                    out.write(bytes);
+            }
+        } catch (ExecutionException e) {
+            Throwable cause=e.getCause();
+            if(cause instanceof IOException)
+                throw (IOException)cause;
+            if(cause instanceof RuntimeException)
+                throw (RuntimeException)cause;
+            throw new IOException(cause);
+        } finally{
+            pool.shutdownNow();
+        }
+        if(out != null)
+            out.flush();
+        return count;
+    }
+
+    public static void main(String args[]) throws Exception
+    {
+        if(System.getProperty("java.awt.headless") == null)
+            System.setProperty("java.awt.headless", "true");
+
+        Map<String,String> values=new HashMap<String,String>();
+        int frames=1, threads=Runtime.getRuntime().availableProcessors();
+        long start=System.currentTimeMillis(), step=1000;
+        String format="png", out=".", base=".";
+
+        for(int i=0;i<args.length;i++){
+            String arg=args[i];
+            if(arg.startsWith("-") && i+1 < args.length){
+                String value=args[++i];
+                if(arg.equals("-frames"))       frames=Integer.parseInt(value);
+                else if(arg.equals("-start"))   start=Long.parseLong(value);
+                else if(arg.equals("-step"))    step=Long.parseLong(value);
+                else if(arg.equals("-threads")) threads=Integer.parseInt(value);
+                else if(arg.equals("-format"))  format=value;
+                else if(arg.equals("-out"))     out=value;
+                else if(arg.equals("-base"))    base=value;
+                else throw new IllegalArgumentException("unknown option "+arg);
+            }
+            else if(arg.indexOf('=') > 0)
+                values.put(arg.substring(0,arg.indexOf('=')), arg.substring(arg.indexOf('=')+1));
+            else
+                throw new IllegalArgumentException("expected name=value or an option: "+arg);
+        }
+
+        HeadlessClock clock=new HeadlessClock(ClockParameters.parse(values),
+                                              new File(base).getAbsoluteFile().toURI().toURL());
+        File directory=null;
+        OutputStream stream=null;
+        if(out.equals("-"))
+            stream=new BufferedOutputStream(System.out, 1<<16);
+        else{
+            directory=new File(out);
+            directory.mkdirs();
+        }
+
+        long begin=System.nanoTime();
+        long count=clock.batch(start, step, frames, threads, format, directory, stream);
+        double seconds=(System.nanoTime()-begin)/1e9;
+        System.err.printf("%d frames of %dx%d in %.2f s, %.0f frames/sec on %d threads%n",
+                          count, clock.params.width, clock.params.height, seconds,
+                          count/seconds, threads);
+    }
+}
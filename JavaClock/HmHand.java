@@ -0,0 +1,72 @@
+/*
+ * HmHand.java - the hour and minute hands of BillsClock, filled polygons
+ */
+
+import java.awt.*;
+import java.awt.geom.*;
+
+class HmHand extends ClockHand
+{
+    public HmHand(int originX,int originY, int length,int thickness, int points){
+        super(originX,originY,length,thickness,points);
+    }
+
+    public HmHand(int originX,int originY, int length,int thickness, int points,
+                  TrigTable dial){
+        super(originX,originY,length,thickness,points,dial);
+    }
+
+    protected void initiallizePoints(   int originX,
+                                        int originY,
+                                        int length,
+                                        int thickness)
+    {
+        baseX[0]=originX;
+        baseY[0]=originY;
+
+        baseX[1]=baseX[0]-thickness/2;
+        baseY[1]=baseY[0]+thickness/2;
+
+        baseX[2]=baseX[1];
+        baseY[2]=baseY[0]+length- thickness;
+
+        baseX[3]=baseX[0];
+        baseY[3]=baseY[0]+length;
+
+        baseX[4]=baseX[0]+thickness/2;
+        baseY[4]=baseY[2];
+
+        baseX[5]=baseX[4];
+        baseY[5]=baseY[1];
+    }
+
+    public void draw(Color color,double angle, Graphics g)
+    {
+        transform(angle);
+        g.setColor(color);
+        g.fillPolygon(transX,transY,numberOfPoints);
+    }
+
+    public void draw(Color color,int position, Graphics g)
+    {
+        transform(position);
+        g.setColor(color);
+        g.fillPolygon(transX,transY,numberOfPoints);
+    }
+
+    public void drawSmooth(Color color,int position, Graphics2D g)
+    {
+        g.setColor(color);
+        g.fill(outlineAt(position));
+    }
+
+    protected Shape outline(float x[], float y[])
+    {
+        Path2D.Float path=new Path2D.Float(Path2D.WIND_NON_ZERO,numberOfPoints);
+        path.moveTo(x[0],y[0]);
+        for(int i=1;i<numberOfPoints;i++)
+            path.lineTo(x[i],y[i]);
+        path.closePath();
+        return path;
+    }
+}
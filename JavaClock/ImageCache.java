@@ -0,0 +1,180 @@
+/*
+ * ImageCache.java - clock images, decoded and scaled once
+ *
+ * BillsClock used to wait in init() for its background and logo with a
+ * MediaTracker before the clock could start, then draw the images at
+ * whatever size and pixel format they came in. The cache decodes each
+ * image on a loader thread, scales it once to the size the clock draws
+ * it at, into a format that copies quickly, and hands the same image to
+ * every clock asking for the same file at the same size. Until an entry
+ * is ready the clock draws its dial without the image.
+ */
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import javax.imageio.ImageIO;
+
+class ImageCache
+{
+    static final int CACHE_SIZE=32;             //Entries kept for reuse
+    static final int LOADERS=2;                 //Loader threads
+
+    //Entries by file and size, least recently used first.
+    private static final Map<String,Entry> entries =
+        new LinkedHashMap<String,Entry>(CACHE_SIZE,0.75f,true){
+            protected boolean removeEldestEntry(Map.Entry<String,Entry> eldest){
+                return size() > CACHE_SIZE;
+            }
+        };
+
+    private static final ThreadPoolExecutor loader =
+        new ThreadPoolExecutor(LOADERS, LOADERS, 5, TimeUnit.SECONDS,
+                               new LinkedBlockingQueue<Runnable>(), r -> {
+                                   Thread thread=new Thread(r, "image-loader");
+                                   thread.setDaemon(true);
+                                   return thread;
+                               });
+    static{
+        loader.allowCoreThreadTimeOut(true);
+    }
+
+    //The image at url scaled to exactly width x height, e.g. a
+    //background filling the clock.
+    static Entry stretched(URL url, int width, int height)
+    {
+        return request(url, width, height, true);
+    }
+
+    //The image at url, scaled down if need be, keeping its proportions,
+    //to fit in width x height, e.g. a logo on the dial.
+    static Entry fitted(URL url, int width, int height)
+    {
+        return request(url, width, height, false);
+    }
+
+    private static Entry request(URL url, int width, int height, boolean stretch)
+    {
+        width=Math.max(1, width);
+        height=Math.max(1, height);
+        String key=url.toExternalForm()+" "+width+"x"+height+(stretch? " stretched" : " fitted");
+        Entry entry;
+        synchronized(entries){
+            entry=entries.get(key);
+            if(entry != null)
+                return entry;
+            entry=new Entry(url, width, height, stretch);
+            entries.put(key, entry);
+        }
+
+        final Entry loading=entry;
+        loader.execute(() -> {
+            try{
+                loading.image.complete(load(loading.url, loading.width, loading.height,
+                                            loading.stretch));
+            } catch (Throwable e) {
+                synchronized(entries){          //Let a later request retry
+                    entries.remove(key, loading);
+                }
+                loading.image.completeExceptionally(e);
+            }
+        });
+        return entry;
+    }
+
+    //Decodes the image at url and scales it for the clock.
+    static BufferedImage load(URL url, int width, int height, boolean stretch) throws IOException
+    {
+        BufferedImage source=ImageIO.read(url);
+        if(source == null)
+            throw new IOException("not an image: "+url);
+
+        if(!stretch){
+            double scale=Math.min(1.0, Math.min((double)width/source.getWidth(),
+                                                (double)height/source.getHeight()));
+            width=Math.max(1, (int)Math.round(source.getWidth()*scale));
+            height=Math.max(1, (int)Math.round(source.getHeight()*scale));
+        }
+
+        BufferedImage scaled=new BufferedImage(width, height,
+                                               source.getColorModel().hasAlpha()?
+                                               BufferedImage.TYPE_INT_ARGB_PRE :
+                                               BufferedImage.TYPE_INT_RGB);
+        Graphics2D g=scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                           RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING,
+                           RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        return scaled;
+    }
+
+    //One image, loading or loaded.
+    static final class Entry
+    {
+        final URL url;
+        final int width, height;        //Size asked for
+        final boolean stretch;
+        private final CompletableFuture<BufferedImage> image=new CompletableFuture<BufferedImage>();
+
+        private Entry(URL url, int width, int height, boolean stretch)
+        {
+            this.url=url;
+            this.width=width;
+            this.height=height;
+            this.stretch=stretch;
+        }
+
+        boolean isDone()
+        {
+            return image.isDone();
+        }
+
+        //The image, or null while it loads or if it failed to.
+        BufferedImage getNow()
+        {
+            return (image.isDone() && !image.isCompletedExceptionally())? image.join() : null;
+        }
+
+        //Why the image failed to load, or null.
+        Throwable getError()
+        {
+            if(!image.isCompletedExceptionally())
+                return null;
+            try{
+                image.join();
+                return null;
+            } catch (CompletionException e) {
+                return e.getCause();
+            }
+        }
+
+        //Waits for the image.
+        BufferedImage get() throws IOException
+        {
+            try{
+                return image.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("loading "+url);
+            } catch (ExecutionException e) {
+                Throwable cause=e.getCause();
+                if(cause instanceof IOException)
+                    throw (IOException)cause;
+                throw new IOException("loading "+url, cause);
+            }
+        }
+
+        //Calls action once the image has loaded or failed to: at once,
+        //on this thread, if it already has, otherwise on a loader thread.
+        void whenDone(Consumer<Entry> action)
+        {
+            image.whenComplete((loaded, error) -> action.accept(this));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * ImageCacheBench.java - startup and draw cost of the clock images
+ *
+ * Writes a large background and logo as PNG files, then measures, for a
+ * 400x400 clock:
+ *   - time to the first frame, waiting for both images to decode (as
+ *     BillsClock.init did with its MediaTracker) and with ImageCache,
+ *     drawing the placeholder dial while the images load;
+ *   - a second clock asking for the same images, decoding them again
+ *     and from the cache;
+ *   - one draw of the images as decoded and as cached, e.g. the logo
+ *     draw BillsClock used to make on every tick, and the dial render.
+ *
+ * HOW TO COMPILE: javac ImageCacheBench.java
+ * HOW TO RUN: java -Djava.awt.headless=true ImageCacheBench [draws]
+ */
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.net.URL;
+import javax.imageio.ImageIO;
+
+public class ImageCacheBench
+{
+    static final int SIZE=400;
+    static final int TRIALS=5;
+
+    static ClockParameters params(int trial)
+    {
+        ClockParameters params=new ClockParameters();
+        params.width=SIZE;
+        params.height=SIZE;
+        params.bgImageURL="background"+trial+".png";
+        params.logoImageURL="logo"+trial+".png";
+        return params;
+    }
+
+    //Writes TRIALS copies of each image, so every trial decodes cold.
+    static URL writeImages() throws Exception
+    {
+        File directory=new File(System.getProperty("java.io.tmpdir"), "ImageCacheBench");
+        directory.mkdirs();
+        BufferedImage background=new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB);
+        for(int y=0;y<background.getHeight();y++)
+            for(int x=0;x<background.getWidth();x++)
+                background.setRGB(x, y, (x*255/1600)<<16 | (y*255/1200)<<8 | ((x^y)&0xff));
+        BufferedImage logo=new BufferedImage(600, 300, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g=logo.createGraphics();
+        g.setColor(Color.yellow);
+        g.fillOval(0, 0, 600, 300);
+        g.setColor(Color.blue);
+        g.setFont(new Font("SansSerif", Font.BOLD, 120));
+        g.drawString("LOGO", 140, 200);
+        g.dispose();
+        for(int i=0;i<TRIALS;i++){
+            ImageIO.write(background, "png", new File(directory, "background"+i+".png"));
+            ImageIO.write(logo, "png", new File(directory, "logo"+i+".png"));
+        }
+        return directory.toURI().toURL();
+    }
+
+    static Image read(URL base, String spec) throws Exception
+    {
+        return ImageIO.read(new URL(base, spec));
+    }
+
+    public static void main(String args[]) throws Exception
+    {
+        int draws=(args.length > 0)? Integer.parseInt(args[0]) : 2000;
+        URL base=writeImages();
+        BufferedImage frame=new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics g=frame.getGraphics();
+        FakeTimeSource clock=new FakeTimeSource(System.currentTimeMillis());
+        ClockTime time=ClockTime.local();
+        time.set(clock.currentTimeMillis());
+
+        read(base, "background0.png");          //Warm up the decoder
+        ImageCache.load(new URL(base, "logo0.png"), SIZE, SIZE, false);
+
+        double blocking=0, async=0, again=0, cached=0;
+        for(int trial=1;trial<TRIALS;trial++){
+            ClockParameters params=params(trial);
+
+            long begin=System.nanoTime();
+            ClockFace face=params.createFace(read(base, params.bgImageURL),
+                                             read(base, params.logoImageURL));
+            params.createRenderer(face).paint(g, time);
+            blocking+=System.nanoTime()-begin;
+
+            begin=System.nanoTime();
+            ImageCache.Entry background=params.requestBackground(base);
+            ImageCache.Entry logo=params.requestLogo(base);
+            params.createRenderer(params.currentFace(background, logo)).paint(g, time);
+            async+=System.nanoTime()-begin;
+            background.get();
+            logo.get();
+
+            begin=System.nanoTime();
+            read(base, params.bgImageURL);
+            read(base, params.logoImageURL);
+            again+=System.nanoTime()-begin;
+
+            begin=System.nanoTime();
+            params.requestBackground(base).get();
+            params.requestLogo(base).get();
+            cached+=System.nanoTime()-begin;
+        }
+        int n=TRIALS-1;
+        System.out.printf("first frame, waiting for images  %10.2f ms%n", blocking/1e6/n);
+        System.out.printf("first frame, placeholder         %10.2f ms%n", async/1e6/n);
+        System.out.printf("second clock, decoding again     %10.2f ms%n", again/1e6/n);
+        System.out.printf("second clock, from the cache     %10.4f ms%n", cached/1e6/n);
+
+        ClockParameters params=params(0);
+        Image rawBackground=read(base, params.bgImageURL), rawLogo=read(base, params.logoImageURL);
+        Image background=params.requestBackground(base).get(), logo=params.requestLogo(base).get();
+        ClockFace rawFace=params.createFace(rawBackground, rawLogo);
+        ClockFace face=params.createFace(background, logo);
+
+        String names[]={"logo draw, decoded", "logo draw, cached",
+                        "dial render, decoded", "dial render, cached"};
+        for(int pass=0;pass<2;pass++)           //The first pass warms up
+            for(int k=0;k<names.length;k++){
+                long begin=System.nanoTime();
+                for(int i=0;i<draws;i++){
+                    if(k == 0)      g.drawImage(rawLogo, 0, 0, null);
+                    else if(k == 1) g.drawImage(logo, 0, 0, null);
+                    else if(k == 2) rawFace.render(g);
+                    else            face.render(g);
+                }
+                if(pass == 1)
+                    System.out.printf("%-32s %10.2f us%n", names[k],
+                                      (System.nanoTime()-begin)/1e3/draws);
+            }
+        g.dispose();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * SmoothSweepBench.java - sustained frame rate of the smooth sweep
+ *
+ * Drives walls of 1 to 100 smooth-sweeping 200x200 clocks from one
+ * TickScheduler at 30, 60 and 120 frames/sec for a few seconds of real
+ * time, each frame updating every clock's dirty area, and for comparison
+ * the same clocks ticking once a second. Reports the frames/sec
+ * sustained, the frames dropped because a frame ran past the next one's
+ * start, and process CPU time per clock.
+ *
+ * HOW TO COMPILE: javac SmoothSweepBench.java
+ * HOW TO RUN: java -Djava.awt.headless=true SmoothSweepBench [seconds]
+ */
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.function.LongConsumer;
+
+public class SmoothSweepBench
+{
+    static final int RATES[]={0, 30, 60, 120};     //0 ticks once a second
+    static final int COUNTS[]={1, 10, 100};
+    static final int SIZE=200;
+
+    static long cpuTime()
+    {
+        return ((com.sun.management.OperatingSystemMXBean)
+                ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+
+    static void run(int rate, int count, int seconds, boolean report) throws Exception
+    {
+        ClockFace face=new ClockFace(SIZE, SIZE, Color.black, Color.black,
+                                     Color.white, Color.black, Color.lightGray,
+                                     "J***X", null, null);
+        ClockRenderer prototype=new ClockRenderer(face, Color.red, Color.lightGray,
+                                                  Color.white, rate);
+        final ClockRenderer renderers[]=new ClockRenderer[count];
+        final ClockTime times[]=new ClockTime[count];
+        final Graphics graphics[]=new Graphics[count];
+        for(int i=0;i<count;i++){
+            renderers[i]=(i == 0)? prototype : new ClockRenderer(prototype);
+            times[i]=new ClockTime(i%24-11);
+            graphics[i]=new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB).getGraphics();
+        }
+
+        LongConsumer frame=millis -> {
+            for(int i=0;i<count;i++){
+                times[i].set(millis);
+                renderers[i].update(graphics[i], times[i]);
+            }
+        };
+        TickScheduler scheduler=(rate == 0)? TickScheduler.perSecond(TimeSource.SYSTEM, frame)
+                                           : TickScheduler.perFrame(TimeSource.SYSTEM, rate, frame);
+
+        long cpu=cpuTime();
+        scheduler.start("smooth-sweep-bench");
+        Thread.sleep(seconds*1000L);
+        cpu=cpuTime()-cpu;
+        scheduler.stop();
+        for(int i=0;i<count;i++)
+            graphics[i].dispose();
+
+        if(report)
+            System.out.printf("%-9s %4d clocks: %6.1f frames/sec, %5d dropped, %4d late,"
+                              +" %7.1f ms CPU/sec, %7.1f us/clock-sec%n",
+                              (rate == 0)? "1/sec" : rate+" fps", count,
+                              (double)scheduler.getTicks()/seconds, scheduler.getMissed(),
+                              scheduler.getLate(), cpu/1e6/seconds, cpu/1e3/seconds/count);
+    }
+
+    public static void main(String args[]) throws Exception
+    {
+        int seconds=(args.length > 0)? Integer.parseInt(args[0]) : 3;
+
+        run(60, 10, 1, false);          //Warm up
+
+        for(int i=0;i<RATES.length;i++)
+            for(int j=0;j<COUNTS.length;j++)
+                run(RATES[i], COUNTS[j], seconds, true);
+    }
+}
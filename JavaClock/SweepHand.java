@@ -0,0 +1,55 @@
+/*
+ * SweepHand.java - the seconds hand of BillsClock, a single line
+ */
+
+import java.awt.*;
+import java.awt.geom.*;
+
+class SweepHand extends ClockHand
+{
+    public SweepHand(int originX,int originY, int length, int points)
+    {
+        super(originX,originY,length,0,points);
+	}
+
+    public SweepHand(int originX,int originY, int length, int points, TrigTable dial)
+    {
+        super(originX,originY,length,0,points,dial);
+    }
+
+    protected void initiallizePoints(int originX,int originY, int length, int unused)
+    {
+        unused=unused;  //We don't use the thickness parameter in this class
+                        //This comes from habit to prevent compiler warning
+                        //concerning unused arguments.
+
+        baseX[0]=originX; baseY[0]=originY;
+        baseX[1]=originX; baseY[1]=originY-length/5;
+        baseX[2]=originX; baseY[2]=originY+length;
+    }
+
+    public void draw(Color color, double angle, Graphics g)
+    {
+        transform(angle);
+        g.setColor(color);
+        g.drawLine(transX[1],transY[1],transX[2],transY[2]);
+    }
+
+    public void draw(Color color, int position, Graphics g)
+    {
+        transform(position);
+        g.setColor(color);
+        g.drawLine(transX[1],transY[1],transX[2],transY[2]);
+    }
+
+    public void drawSmooth(Color color, int position, Graphics2D g)
+    {
+        g.setColor(color);
+        g.draw(outlineAt(position));
+    }
+
+    protected Shape outline(float x[], float y[])
+    {
+        return new Line2D.Float(x[1],y[1],x[2],y[2]);
+    }
+}
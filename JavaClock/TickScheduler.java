@@ -0,0 +1,181 @@
+/*
+ * TickScheduler.java - wakes a clock at the start of each period
+ *
+ * Instead of polling with Thread.sleep(500), which repaints twice per
+ * second whether or not the second changed and lets the sweep hand lag
+ * real seconds by up to half a second, the scheduler's thread parks
+ * until the first millisecond of the next period: each second, or each
+ * frame at a smooth-sweep frame rate. A wakeup that finds the period
+ * unchanged (an early or spurious wakeup) is skipped without calling
+ * the listener.
+ *
+ * Frames are numbered within each second (see frameIndex), so a second
+ * always starts a frame and every frame of a rate that does not divide
+ * 1000 -- 60 or 120 a second -- is one or two ms long, never skipped
+ * and never merged with the next. ClockRenderer places the smooth sweep
+ * by the same numbering, so each tick moves the hand one position.
+ *
+ * The scheduler counts ticks, skipped wakeups, late ticks (run more
+ * than lateAfter ms past their boundary) and missed periods (periods
+ * that passed without a tick because the listener took too long).
+ */
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+class TickScheduler
+{
+    static final int MAX_RATE=1000;     //Every frame must hold a millisecond
+
+    final TimeSource timeSource;
+    final int framesPerSecond;
+    final long lateAfter;               //ms past a boundary that count as late
+    private final LongConsumer listener;        //Called with the time of each tick
+
+    private long lastIndex=Long.MIN_VALUE;      //Period of the last tick
+
+    //Written by the scheduler thread only.
+    private volatile long ticks, timed, skipped, late, missed;
+    private volatile long maxLateness, totalLateness;
+
+    private volatile Thread thread;
+
+    TickScheduler(TimeSource timeSource, int framesPerSecond, LongConsumer listener)
+    {
+        if(framesPerSecond <= 0 || framesPerSecond > MAX_RATE)
+            throw new IllegalArgumentException("framesPerSecond: "+framesPerSecond);
+        this.timeSource=timeSource;
+        this.framesPerSecond=framesPerSecond;
+        this.lateAfter=Math.max(1, Math.min(20, 1000/framesPerSecond/4));
+        this.listener=listener;
+    }
+
+    //A scheduler ticking every second.
+    static TickScheduler perSecond(TimeSource timeSource, LongConsumer listener)
+    {
+        return new TickScheduler(timeSource, 1, listener);
+    }
+
+    //A scheduler ticking framesPerSecond times a second.
+    static TickScheduler perFrame(TimeSource timeSource, int framesPerSecond,
+                                  LongConsumer listener)
+    {
+        return new TickScheduler(timeSource, framesPerSecond, listener);
+    }
+
+    //Frame, at framesPerSecond, within its second of a millisecond of
+    //that second (0-999).
+    static int frameOfSecond(int millisOfSecond, int framesPerSecond)
+    {
+        return millisOfSecond*framesPerSecond/1000;
+    }
+
+    //Frame of the instant millis: framesPerSecond per whole second of
+    //the epoch, numbered within the second by frameOfSecond.
+    static long frameIndex(long millis, int framesPerSecond)
+    {
+        return Math.floorDiv(millis, 1000L)*framesPerSecond
+               + frameOfSecond((int)Math.floorMod(millis, 1000L), framesPerSecond);
+    }
+
+    //First millisecond of a frame.
+    static long frameStart(long index, int framesPerSecond)
+    {
+        long second=Math.floorDiv(index, (long)framesPerSecond);
+        int frame=(int)Math.floorMod(index, (long)framesPerSecond);
+        return second*1000+(frame*1000+framesPerSecond-1)/framesPerSecond;
+    }
+
+    //Calls the listener if a new period has begun at now and returns
+    //the time of the next period's boundary. The scheduler's thread
+    //calls this on every wakeup; tests can call it directly with a
+    //FakeTimeSource's time.
+    long poll(long now)
+    {
+        long index=frameIndex(now, framesPerSecond);
+        if(index == lastIndex){
+            skipped++;
+            return frameStart(index+1, framesPerSecond);
+        }
+
+        //The first tick comes whenever the scheduler starts, not at a
+        //boundary, so it is not timed.
+        if(lastIndex != Long.MIN_VALUE){
+            if(index > lastIndex+1)
+                missed+=index-lastIndex-1;
+            long lateness=now-frameStart(index, framesPerSecond);
+            if(lateness > lateAfter)
+                late++;
+            if(lateness > maxLateness)
+                maxLateness=lateness;
+            totalLateness+=lateness;
+            timed++;
+        }
+        ticks++;
+        lastIndex=index;
+
+        listener.accept(now);
+        return frameStart(index+1, framesPerSecond);
+    }
+
+    //Starts ticking on a new daemon thread.
+    synchronized void start(String name)
+    {
+        if(thread != null)
+            return;
+        thread=new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    //Stops ticking; waits for a tick in progress unless called from it.
+    void stop()
+    {
+        Thread stopping;
+        synchronized(this){
+            stopping=thread;
+            thread=null;
+        }
+        if(stopping == null)
+            return;
+        LockSupport.unpark(stopping);
+        if(stopping != Thread.currentThread()){
+            try{
+                stopping.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run()
+    {
+        Thread self=Thread.currentThread();
+        while(thread == self){
+            long next=poll(timeSource.currentTimeMillis());
+            long wait=next-timeSource.currentTimeMillis();
+            if(wait >= 0)       //One ms more, so we wake inside the new period
+                LockSupport.parkNanos(this, (wait+1)*1000000L);
+        }
+    }
+
+    long getTicks()         { return ticks; }
+    long getSkipped()       { return skipped; }
+    long getLate()          { return late; }
+    long getMissed()        { return missed; }
+    long getMaxLateness()   { return maxLateness; }
+
+    double getMeanLateness()
+    {
+        long n=timed;
+        return (n == 0)? 0 : (double)totalLateness/n;
+    }
+
+    public String toString()
+    {
+        return String.format("%d ticks at %d/sec, %d skipped wakeups, %d late (> %d ms),"
+                             +" %d missed, lateness mean %.1f ms max %d ms",
+                             ticks, framesPerSecond, skipped, late, lateAfter, missed,
+                             getMeanLateness(), maxLateness);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * TimeSource.java - where the clocks get the current time
+ *
+ * Renderers ask a TimeSource for the time instead of calling
+ * System.currentTimeMillis or allocating a Date, so a test or a
+ * benchmark can drive them with a FakeTimeSource and get the same
+ * frames every run.
+ */
+
+interface TimeSource
+{
+    //The system clock, read monotonically (see SystemTimeSource).
+    TimeSource SYSTEM=new SystemTimeSource();
+
+    //Milliseconds since 1970-01-01T00:00Z.
+    long currentTimeMillis();
+}
+
+//Wall-clock time read as an offset from a System.nanoTime anchor, so
+//the time shown never jumps backwards when the system clock is slewed
+//or nudged back a little. When the system clock differs from it by
+//more than RESYNC_MILLIS -- an NTP step, or a host resumed from suspend,
+//during which nanoTime stops -- the anchor is taken again and the time
+//follows the system clock, in either direction.
+class SystemTimeSource implements TimeSource
+{
+    static final long RESYNC_MILLIS=1000;
+
+    private volatile Anchor anchor=new Anchor(System.currentTimeMillis(), System.nanoTime());
+
+    public long currentTimeMillis()
+    {
+        Anchor a=anchor;
+        long nanos=System.nanoTime();
+        long millis=a.millis+(nanos-a.nanos)/1000000L;
+        long wall=System.currentTimeMillis();
+        if(Math.abs(wall-millis) > RESYNC_MILLIS){
+            anchor=new Anchor(wall, nanos);
+            millis=wall;
+        }
+        return millis;
+    }
+
+    private static final class Anchor
+    {
+        final long millis, nanos;
+
+        Anchor(long millis, long nanos)
+        {
+            this.millis=millis;
+            this.nanos=nanos;
+        }
+    }
+}
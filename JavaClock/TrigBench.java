@@ -0,0 +1,74 @@
+/*
+ * TrigBench.java - cost of placing a clock hand
+ *
+ * Moves an hour hand through all 720 positions of its turn three ways:
+ * with Math.cos and Math.sin per point (ClockHand.transform(double)),
+ * with TrigTable lookups per point, and with the per-position vertex
+ * cache (ClockHand.transform(int)). Reports nanoseconds per position.
+ *
+ * HOW TO COMPILE: javac TrigBench.java
+ * HOW TO RUN: java TrigBench [rounds]
+ */
+
+public class TrigBench
+{
+    static final double HOUR=0.523598776;       //Radians per hour
+    static final int POSITIONS=720;
+
+    static int sink;    //Keeps the results alive
+
+    //transform(int) before the vertex cache: table lookups, but every
+    //point computed on every call.
+    static void tableTransform(HmHand hand, int position, int x[], int y[])
+    {
+        double cos=TrigTable.HOURS.cos(position), sin=TrigTable.HOURS.sin(position);
+        for(int i=0;i<hand.numberOfPoints;i++){
+            x[i]=(int)( (hand.baseX[0]-hand.baseX[i]) * cos -
+                        (hand.baseY[0]-hand.baseY[i]) * sin +
+                         hand.baseX[0]);
+            y[i]=(int)( (hand.baseX[0]-hand.baseX[i]) * sin +
+                        (hand.baseY[0]-hand.baseY[i]) * cos +
+                         hand.baseY[0]);
+        }
+    }
+
+    public static void main(String args[])
+    {
+        int rounds=(args.length > 0)? Integer.parseInt(args[0]) : 20000;
+        HmHand hand=new HmHand(500,500,250,80,6,TrigTable.HOURS);
+        int x[]=new int[6], y[]=new int[6];
+        long math=0, table=0, cached=0;
+
+        for(int pass=0;pass<2;pass++){      //The first pass warms up
+            long begin=System.nanoTime();
+            for(int r=0;r<rounds;r++)
+                for(int p=0;p<POSITIONS;p++){
+                    hand.transform(HOUR*p/60.0);
+                    sink+=hand.transX[3];
+                }
+            long middle=System.nanoTime();
+            for(int r=0;r<rounds;r++)
+                for(int p=0;p<POSITIONS;p++){
+                    tableTransform(hand,p,x,y);
+                    sink+=x[3];
+                }
+            long middle2=System.nanoTime();
+            for(int r=0;r<rounds;r++)
+                for(int p=0;p<POSITIONS;p++){
+                    hand.transform(p);
+                    sink+=hand.transX[3];
+                }
+            long end=System.nanoTime();
+
+            math=middle-begin;
+            table=middle2-middle;
+            cached=end-middle2;
+        }
+
+        double n=(double)rounds*POSITIONS;
+        System.out.printf("Math.sin/cos:  %6.1f ns/position%n", math/n);
+        System.out.printf("TrigTable:     %6.1f ns/position%n", table/n);
+        System.out.printf("vertex cache:  %6.1f ns/position%n", cached/n);
+        System.out.println("(checksum "+sink+")");
+    }
+}
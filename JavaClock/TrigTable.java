@@ -0,0 +1,43 @@
+/*
+ * TrigTable.java - sines and cosines of a dial's positions
+ *
+ * The hands of a clock only ever stand at a fixed number of positions
+ * per turn: 60 for the second and minute hands, 720 for the hour hand
+ * (one per minute of a 12 hour turn). A table holds the sine and
+ * cosine of every position of one such dial, so the hands and the face
+ * look them up instead of calling Math.sin and Math.cos.
+ */
+
+class TrigTable
+{
+    static final TrigTable MINUTES=new TrigTable(60);   //Seconds or minutes
+    static final TrigTable HOURS=new TrigTable(720);    //Hours, by the minute
+    static final TrigTable DIAL=new TrigTable(12);      //Hour marks
+
+    final int steps;
+    private final double sin[], cos[];
+
+    TrigTable(int steps)
+    {
+        this.steps=steps;
+        sin=new double[steps];
+        cos=new double[steps];
+        for(int i=0;i<steps;i++){
+            double angle=2*Math.PI*i/steps;
+            sin[i]=Math.sin(angle);
+            cos[i]=Math.cos(angle);
+        }
+    }
+
+    //Sine of the angle of a position, counted clockwise from 12 o'clock;
+    //positions outside 0..steps-1 wrap around.
+    double sin(int position)
+    {
+        return sin[Math.floorMod(position,steps)];
+    }
+
+    double cos(int position)
+    {
+        return cos[Math.floorMod(position,steps)];
+    }
+}
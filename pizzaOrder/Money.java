@@ -0,0 +1,72 @@
+//Exact money arithmetic on amounts held as a long number of centavos
+//(1 peso = 100 centavos). Amounts are plain longs, so sums and
+//products allocate nothing and never pick up binary rounding errors.
+
+public final class Money {
+        private Money() {
+        }
+
+        //pesos.centavos as an amount, e.g. of(75, 50) is Php 75.50.
+        static long of(long pesos, int centavos) {
+                return Math.addExact(Math.multiplyExact(pesos, 100), centavos);
+        }
+
+        //Amount written as pesos with at most two decimals, e.g. "75.50".
+        static long parse(String text) {
+                String amount = text.trim();
+                boolean negative = amount.startsWith("-");
+                if (negative) {
+                        amount = amount.substring(1);
+                }
+                int point = amount.indexOf('.');
+                String pesos = point < 0 ? amount : amount.substring(0, point);
+                String fraction = point < 0 ? "" : amount.substring(point + 1);
+                if (fraction.length() > 2 || (pesos.isEmpty() && fraction.isEmpty())
+                                || !(pesos + fraction).chars().allMatch(Character::isDigit)) {
+                        throw new NumberFormatException("not a money amount: \"" + text + "\"");
+                }
+                while (fraction.length() < 2) {
+                        fraction += "0";
+                }
+                long centavos = of(pesos.isEmpty() ? 0 : Long.parseLong(pesos),
+                                Integer.parseInt(fraction));
+                return negative ? -centavos : centavos;
+        }
+
+        static long times(long amount, int quantity) {
+                return Math.multiplyExact(amount, quantity);
+        }
+
+        //rate of amount, with rate in basis points (hundredths of a
+        //percent, so 7.75% is 775), rounded half away from zero to the
+        //centavo.
+        static long percent(long amount, int basisPoints) {
+                long scaled = Math.multiplyExact(amount, basisPoints);
+                long whole = scaled / 10000;
+                long rest = scaled % 10000;
+                if (rest >= 5000) {
+                        whole++;
+                } else if (rest <= -5000) {
+                        whole--;
+                }
+                return whole;
+        }
+
+        //Amount as pesos with two decimals, e.g. "1234.50".
+        static String format(long amount) {
+                return appendTo(new StringBuilder(24), amount).toString();
+        }
+
+        static StringBuilder appendTo(StringBuilder out, long amount) {
+                if (amount < 0) {
+                        out.append('-');
+                }
+                long pesos = Math.abs(amount / 100);
+                int centavos = (int) Math.abs(amount % 100);
+                out.append(pesos).append('.');
+                if (centavos < 10) {
+                        out.append('0');
+                }
+                return out.append(centavos);
+        }
+}
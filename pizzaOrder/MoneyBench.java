@@ -0,0 +1,90 @@
+//Money arithmetic benchmark for bulk repricing.
+//Reprices the same order lines (unit price * quantity, 7.75% tax rounded
+//to the centavo, total) with long centavos, with doubles rounded after
+//each step, and with BigDecimal, and reports lines/sec for each.
+//HOW TO COMPILE: javac MoneyBench.java
+//HOW TO RUN: java MoneyBench [lines] [rounds]
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+public class MoneyBench {
+        static final BigDecimal BIG_RATE = new BigDecimal("0.0775");
+
+        static long withCentavos(long[] units, int[] quantities) {
+                long sum = 0;
+                for (int i = 0; i < units.length; i++) {
+                        long subtotal = Money.times(units[i], quantities[i]);
+                        sum += subtotal + Money.percent(subtotal, PricingEngine.TAX_BASIS_POINTS);
+                }
+                return sum;
+        }
+
+        static double withDoubles(double[] units, int[] quantities) {
+                double sum = 0;
+                for (int i = 0; i < units.length; i++) {
+                        double subtotal = Math.round(units[i] * quantities[i] * 100) / 100.0;
+                        double tax = Math.round(subtotal * 0.0775 * 100) / 100.0;
+                        sum = Math.round((sum + subtotal + tax) * 100) / 100.0;
+                }
+                return sum;
+        }
+
+        static BigDecimal withBigDecimal(BigDecimal[] units, int[] quantities) {
+                BigDecimal sum = BigDecimal.ZERO;
+                for (int i = 0; i < units.length; i++) {
+                        BigDecimal subtotal = units[i].multiply(BigDecimal.valueOf(quantities[i]));
+                        BigDecimal tax = subtotal.multiply(BIG_RATE).setScale(2, RoundingMode.HALF_UP);
+                        sum = sum.add(subtotal).add(tax);
+                }
+                return sum;
+        }
+
+        public static void main(String[] args) {
+                int lines = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+                int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+                Random random = new Random(42);
+                long[] units = new long[lines];
+                double[] doubleUnits = new double[lines];
+                BigDecimal[] bigUnits = new BigDecimal[lines];
+                int[] quantities = new int[lines];
+                for (int i = 0; i < lines; i++) {
+                        units[i] = 7550 + random.nextInt(50000);
+                        doubleUnits[i] = units[i] / 100.0;
+                        bigUnits[i] = BigDecimal.valueOf(units[i], 2);
+                        quantities[i] = 1 + random.nextInt(10);
+                }
+
+                long centavos = 0;
+                double doubles = 0;
+                BigDecimal big = null;
+                long centavoTime = 0, doubleTime = 0, bigTime = 0;
+                for (int round = 0; round <= rounds; round++) {
+                        long t0 = System.nanoTime();
+                        centavos = withCentavos(units, quantities);
+                        long t1 = System.nanoTime();
+                        doubles = withDoubles(doubleUnits, quantities);
+                        long t2 = System.nanoTime();
+                        big = withBigDecimal(bigUnits, quantities);
+                        long t3 = System.nanoTime();
+                        if (round > 0) {        //round 0 is warm up
+                                centavoTime += t1 - t0;
+                                doubleTime += t2 - t1;
+                                bigTime += t3 - t2;
+                        }
+                }
+
+                double count = (double) lines * rounds;
+                System.out.printf("long centavos:     %,14.0f lines/sec, total %s%n",
+                                count / (centavoTime / 1e9), Money.format(centavos));
+                System.out.printf("double + rounding: %,14.0f lines/sec, total %.2f%n",
+                                count / (doubleTime / 1e9), doubles);
+                System.out.printf("BigDecimal:        %,14.0f lines/sec, total %s%n",
+                                count / (bigTime / 1e9), big.toPlainString());
+                if (big.compareTo(BigDecimal.valueOf(centavos, 2)) != 0) {
+                        throw new IllegalStateException("centavo total differs from BigDecimal");
+                }
+        }
+}
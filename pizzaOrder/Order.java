@@ -0,0 +1,63 @@
+//One confirmed pizza order, as handed to OrderIntake.
+//toppings are catalog topping ids; total is the amount due with tax,
+//in centavos.
+
+public final class Order {
+        final String name;
+        final String address;
+        final String contact;
+        final int quantity;
+        final String size;              //size name from the catalog
+        private final int[] toppings;
+        final long total;
+
+        Order(String name, String address, String contact, int quantity,
+                        String size, int[] toppings, long total) {
+                this.name = name;
+                this.address = address;
+                this.contact = contact;
+                this.quantity = quantity;
+                this.size = size;
+                this.toppings = toppings.clone();
+                this.total = total;
+        }
+
+        int[] toppings() {
+                return toppings.clone();
+        }
+
+        //Appends the order as one log line, without the line break:
+        //    name <TAB> address <TAB> contact <TAB> quantity <TAB> size
+        //    <TAB> toppings <TAB> total
+        //with toppings numbered from 1 and comma separated, as in the
+        //input of OrderBatch. Tabs and line breaks typed into the text
+        //fields become spaces.
+        StringBuilder appendTo(StringBuilder line) {
+                appendField(line, name).append('\t');
+                appendField(line, address).append('\t');
+                appendField(line, contact).append('\t');
+                line.append(quantity).append('\t');
+                appendField(line, size).append('\t');
+                for (int i = 0; i < toppings.length; i++) {
+                        if (i > 0) {
+                                line.append(',');
+                        }
+                        line.append(toppings[i] + 1);
+                }
+                line.append('\t');
+                return Money.appendTo(line, total);
+        }
+
+        private static StringBuilder appendField(StringBuilder line, String text) {
+                for (int i = 0; i < text.length(); i++) {
+                        char ch = text.charAt(i);
+                        line.append(ch == '\t' || ch == '\n' || ch == '\r' ? ' ' : ch);
+                }
+                return line;
+        }
+
+        @Override
+        public String toString() {
+                return appendTo(new StringBuilder()).toString();
+        }
+}
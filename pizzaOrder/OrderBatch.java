@@ -0,0 +1,156 @@
+//Bulk repricing of pizza orders.
+//Reads one order per line, tab separated:
+//    name <TAB> address <TAB> quantity <TAB> size <TAB> toppings
+//where size is the name of a size of the menu, ignoring case, or its
+//number counting from 1, and toppings is a comma separated list of
+//topping numbers: the position of the topping in the menu, counting
+//from 1 (may be empty). With the standard menu.txt, 1-9 are the
+//vegetable and 10-18 the meat toppings of the order form.
+//Writes one line per order, in input order:
+//    name <TAB> address <TAB> subtotal <TAB> tax <TAB> total
+//or "ERROR <TAB> message" for an order that cannot be read.
+//HOW TO COMPILE: javac OrderBatch.java
+//HOW TO RUN: java OrderBatch orders.txt totals.txt [menu.txt]
+//            (use - for standard input or output)
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+public class OrderBatch {
+        static final int CHUNK_SIZE = 1 << 16;  //orders read and priced at a time
+
+        private final ToppingCatalog catalog;
+        private final PricingEngine pricing;
+        private final boolean parallel;
+
+        OrderBatch(ToppingCatalog catalog, boolean parallel) {
+                this.catalog = catalog;
+                this.pricing = new PricingEngine(catalog);
+                this.parallel = parallel;
+        }
+
+        //Price every order of in and write the results to out.
+        //Returns the number of orders read.
+        long run(BufferedReader in, Writer out) throws IOException {
+                final String[] lines = new String[CHUNK_SIZE];
+                final String[] results = new String[CHUNK_SIZE];
+                long total = 0;
+
+                for (;;) {
+                        int count = 0;
+                        String line;
+                        while (count < CHUNK_SIZE && (line = in.readLine()) != null) {
+                                lines[count++] = line;
+                        }
+                        if (count == 0) {
+                                break;
+                        }
+
+                        IntStream indexes = IntStream.range(0, count);
+                        if (parallel) {
+                                indexes = indexes.parallel();
+                        }
+                        indexes.forEach(i -> results[i] = priceLine(lines[i]));
+
+                        for (int i = 0; i < count; i++) {
+                                out.write(results[i]);
+                                out.write('\n');
+                        }
+                        total += count;
+                }
+                out.flush();
+                return total;
+        }
+
+        //Result line for one order line.
+        String priceLine(String line) {
+                String[] fields = line.split("\t", -1);
+                if (fields.length != 5) {
+                        return "ERROR\texpected 5 fields, found " + fields.length;
+                }
+                try {
+                        int quantity = Integer.parseInt(fields[2].trim());
+                        if (quantity < 0) {
+                                return "ERROR\tnegative quantity " + quantity;
+                        }
+                        int[] toppings = parseToppings(fields[4]);
+                        long subtotal = pricing.subtotal(parseSize(fields[3]),
+                                        toppings, toppings.length, quantity);
+                        long tax = PricingEngine.tax(subtotal);
+
+                        StringBuilder result = new StringBuilder(line.length() + 40);
+                        result.append(fields[0]).append('\t').append(fields[1]).append('\t');
+                        Money.appendTo(result, subtotal).append('\t');
+                        Money.appendTo(result, tax).append('\t');
+                        return Money.appendTo(result, subtotal + tax).toString();
+                } catch (IllegalArgumentException e) {
+                        return "ERROR\t" + e.getMessage();
+                }
+        }
+
+        int parseSize(String text) {
+                String size = text.trim();
+                int id = catalog.sizeId(size);
+                if (id >= 0) {
+                        return id;
+                }
+                try {
+                        id = Integer.parseInt(size) - 1;
+                } catch (NumberFormatException e) {
+                        id = -1;
+                }
+                if (id < 0 || id >= catalog.sizeCount()) {
+                        throw new IllegalArgumentException("unknown size \"" + size + "\"");
+                }
+                return id;
+        }
+
+        //Topping ids of a list of topping numbers. A topping listed
+        //twice is on the pizza once.
+        int[] parseToppings(String text) {
+                if (text.trim().isEmpty()) {
+                        return new int[0];
+                }
+                String[] numbers = text.split(",");
+                int[] toppings = new int[numbers.length];
+                int count = 0;
+                next:
+                for (String number : numbers) {
+                        int topping = Integer.parseInt(number.trim());
+                        if (topping < 1 || topping > catalog.toppingCount()) {
+                                throw new IllegalArgumentException("unknown topping " + topping);
+                        }
+                        for (int i = 0; i < count; i++) {
+                                if (toppings[i] == topping - 1) {
+                                        continue next;
+                                }
+                        }
+                        toppings[count++] = topping - 1;
+                }
+                return count == toppings.length ? toppings : Arrays.copyOf(toppings, count);
+        }
+
+        public static void main(String[] args) throws IOException {
+                if (args.length < 2) {
+                        System.err.println("usage: java OrderBatch orders totals [menu]");
+                        System.exit(2);
+                }
+                ToppingCatalog catalog = args.length > 2
+                                ? ToppingCatalog.read(Paths.get(args[2])) : ToppingCatalog.standardMenu();
+                BufferedReader in = args[0].equals("-")
+                                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                                : Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8);
+                Writer out = args[1].equals("-")
+                                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                                : Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8);
+                try {
+                        new OrderBatch(catalog, true).run(in, out);
+                } finally {
+                        in.close();
+                        out.close();
+                }
+        }
+}
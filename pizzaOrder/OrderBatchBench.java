@@ -0,0 +1,56 @@
+//Throughput benchmark for OrderBatch.
+//Writes a file of random orders and reprices it sequentially and with
+//parallel streams, reporting orders/sec.
+//HOW TO COMPILE: javac OrderBatchBench.java
+//HOW TO RUN: java OrderBatchBench [orders]
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Random;
+
+public class OrderBatchBench {
+        static final String[] SIZES = {"Small", "Medium", "Large", "Extra Large"};
+
+        static long time(Path input, Path output, boolean parallel) throws IOException {
+                long begin = System.nanoTime();
+                try (BufferedReader in = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+                                Writer out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+                        new OrderBatch(ToppingCatalog.standardMenu(), parallel).run(in, out);
+                }
+                return System.nanoTime() - begin;
+        }
+
+        public static void main(String[] args) throws IOException {
+                int orders = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+                Path input = Files.createTempFile("orders", ".txt");
+                Path output = Files.createTempFile("totals", ".txt");
+
+                Random random = new Random(42);
+                try (BufferedWriter writer = Files.newBufferedWriter(input, StandardCharsets.UTF_8)) {
+                        for (int i = 0; i < orders; i++) {
+                                StringBuilder toppings = new StringBuilder();
+                                for (int t = 1; t <= 18; t++) {
+                                        if (random.nextInt(4) == 0) {
+                                                toppings.append(toppings.length() > 0 ? "," : "").append(t);
+                                        }
+                                }
+                                writer.write("Customer " + i + "\t" + i + " Rizal Avenue\t"
+                                                + (1 + random.nextInt(10)) + "\t"
+                                                + SIZES[random.nextInt(SIZES.length)] + "\t" + toppings);
+                                writer.newLine();
+                        }
+                }
+
+                time(input, output, true);      //warm up
+                long sequential = time(input, output, false);
+                long parallel = time(input, output, true);
+                System.out.printf("sequential: %,12.0f orders/sec%n", orders / (sequential / 1e9));
+                System.out.printf("parallel:   %,12.0f orders/sec on %d cores (%.2fx)%n",
+                                orders / (parallel / 1e9), Runtime.getRuntime().availableProcessors(),
+                                (double) sequential / parallel);
+
+                Files.delete(input);
+                Files.delete(output);
+        }
+}
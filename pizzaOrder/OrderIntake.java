@@ -0,0 +1,157 @@
+//Hands confirmed orders to the kitchen.
+//submit() puts an order on a bounded OrderQueue and returns at once;
+//a single consumer thread takes the waiting orders in batches and
+//appends them to an order log, one line per order (see
+//Order.appendTo), with one write and one fsync per batch. When the
+//queue is full submit() returns false: the kitchen is behind and the
+//caller should ask the customer to try again rather than wait.
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class OrderIntake implements Closeable {
+        static final String DEFAULT_LOG = "orders.log";
+        static final int DEFAULT_CAPACITY = 1024;
+        static final int DEFAULT_BATCH_SIZE = 256;
+
+        private final OrderQueue<Order> queue;
+        private final int batchSize;
+        private final FileChannel log;
+        private final Thread consumer;
+
+        private volatile boolean closed;
+        private volatile boolean waiting;       //consumer is parked on an empty queue
+        private volatile IOException failure;   //first write error of the consumer
+
+        private final LongAdder accepted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private volatile long written;          //orders on disk, consumer only
+        private volatile long batches;
+
+        OrderIntake(Path logFile, int capacity, int batchSize) throws IOException {
+                if (batchSize <= 0) {
+                        throw new IllegalArgumentException("batchSize: " + batchSize);
+                }
+                this.queue = new OrderQueue<>(capacity);
+                this.batchSize = batchSize;
+                log = FileChannel.open(logFile, StandardOpenOption.CREATE,
+                                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                consumer = new Thread(this::consume, "order-intake");
+                consumer.start();
+        }
+
+        OrderIntake(Path logFile) throws IOException {
+                this(logFile, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+        }
+
+        //Queues order for the log. Returns false, without queueing it,
+        //when the queue is full.
+        boolean submit(Order order) {
+                if (closed) {
+                        throw new IllegalStateException("order intake is closed");
+                }
+                if (failure != null) {
+                        throw new UncheckedIOException("order log failed", failure);
+                }
+                if (!queue.offer(order)) {
+                        rejected.increment();
+                        return false;
+                }
+                accepted.increment();
+                if (waiting) {
+                        LockSupport.unpark(consumer);
+                }
+                return true;
+        }
+
+        long acceptedCount() {
+                return accepted.sum();
+        }
+
+        long rejectedCount() {
+                return rejected.sum();
+        }
+
+        long writtenCount() {
+                return written;
+        }
+
+        long batchCount() {
+                return batches;
+        }
+
+        int backlog() {
+                return queue.size();
+        }
+
+        private void consume() {
+                List<Order> batch = new ArrayList<>(batchSize);
+                StringBuilder text = new StringBuilder();
+                for (;;) {
+                        if (queue.drainTo(batch, batchSize) == 0) {
+                                if (closed && queue.isEmpty()) {
+                                        return;
+                                }
+                                waiting = true;
+                                if (queue.isEmpty() && !closed) {
+                                        LockSupport.park(this);
+                                }
+                                waiting = false;
+                                continue;
+                        }
+                        try {
+                                write(batch, text);
+                        } catch (IOException e) {
+                                if (failure == null) {
+                                        failure = e;
+                                }
+                                return;
+                        }
+                        batch.clear();
+                }
+        }
+
+        private void write(List<Order> batch, StringBuilder text) throws IOException {
+                text.setLength(0);
+                for (Order order : batch) {
+                        order.appendTo(text).append('\n');
+                }
+                ByteBuffer bytes = StandardCharsets.UTF_8.encode(text.toString());
+                while (bytes.hasRemaining()) {
+                        log.write(bytes);
+                }
+                log.force(false);
+                written += batch.size();
+                batches++;
+        }
+
+        //Stops taking orders, waits until every accepted order is in the
+        //log and closes it. Throws the consumer's write error, if any.
+        public void close() throws IOException {
+                if (closed) {
+                        return;
+                }
+                closed = true;
+                LockSupport.unpark(consumer);
+                try {
+                        consumer.join();
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                } finally {
+                        log.close();
+                }
+                if (failure != null) {
+                        throw failure;
+                }
+        }
+}
@@ -0,0 +1,58 @@
+//Sustained ingestion benchmark for OrderIntake.
+//Producer threads submit orders as fast as they can, retrying when the
+//queue pushes back, until every order is fsynced to a temporary log.
+//Reports orders/sec, batches written and how often producers were
+//told the kitchen was busy, for a few batch sizes.
+//HOW TO COMPILE: javac OrderIntakeBench.java
+//HOW TO RUN: java OrderIntakeBench [orders] [producers]
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class OrderIntakeBench {
+        static final int CAPACITY = 4096;
+
+        static void run(int orders, int producers, int batchSize) throws Exception {
+                Path log = Files.createTempFile("orders", ".log");
+                Order order = new Order("Customer", "1 Rizal Avenue", "0917 555 0100", 2,
+                                "Large", new int[] {0, 5, 9}, Money.of(410, 57));
+
+                OrderIntake intake = new OrderIntake(log, CAPACITY, batchSize);
+                Thread[] threads = new Thread[producers];
+                long begin = System.nanoTime();
+                for (int p = 0; p < producers; p++) {
+                        int share = orders / producers + (p < orders % producers ? 1 : 0);
+                        threads[p] = new Thread(() -> {
+                                for (int i = 0; i < share; i++) {
+                                        while (!intake.submit(order)) {
+                                                Thread.yield();         //backpressure: try again
+                                        }
+                                }
+                        });
+                        threads[p].start();
+                }
+                for (Thread thread : threads) {
+                        thread.join();
+                }
+                intake.close();
+                long elapsed = System.nanoTime() - begin;
+
+                System.out.printf("batch %4d: %,10.0f orders/sec, %,7d batches (avg %6.1f), %,10d busy%n",
+                                batchSize, orders / (elapsed / 1e9), intake.batchCount(),
+                                (double) intake.writtenCount() / intake.batchCount(), intake.rejectedCount());
+                if (intake.writtenCount() != orders) {
+                        throw new IllegalStateException("wrote " + intake.writtenCount() + " of " + orders);
+                }
+                Files.delete(log);
+        }
+
+        public static void main(String[] args) throws Exception {
+                int orders = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+                int producers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+                run(orders / 10, producers, OrderIntake.DEFAULT_BATCH_SIZE);   //warm up
+                for (int batchSize : new int[] {1, 16, 256, 4096}) {
+                        run(batchSize == 1 ? orders / 100 : orders, producers, batchSize);
+                }
+        }
+}
@@ -0,0 +1,100 @@
+//Bounded lock-free queue for many producer threads and one consumer
+//thread. Items live in a ring of slots; each slot carries a sequence
+//number telling producers when it is free and the consumer when it is
+//filled, so neither side ever blocks or takes a lock. offer() returns
+//false instead of waiting when the ring is full, which is how callers
+//learn that the consumer has fallen behind.
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class OrderQueue<E> {
+        private final int mask;                 //capacity - 1
+        private final AtomicReferenceArray<E> items;
+        private final AtomicLongArray sequences;        //sequences[i] == position: slot free
+                                                        //for position; == position + 1: filled
+        private final AtomicLong tail = new AtomicLong();       //next position to offer
+        private volatile long head;             //next position to poll, written by
+                                                //the consumer only
+
+        //capacity is rounded up to a power of two.
+        OrderQueue(int capacity) {
+                if (capacity <= 0) {
+                        throw new IllegalArgumentException("capacity: " + capacity);
+                }
+                int size = Integer.highestOneBit(capacity);
+                if (size < capacity) {
+                        size <<= 1;
+                }
+                mask = size - 1;
+                items = new AtomicReferenceArray<>(size);
+                sequences = new AtomicLongArray(size);
+                for (int i = 0; i < size; i++) {
+                        sequences.set(i, i);
+                }
+        }
+
+        int capacity() {
+                return mask + 1;
+        }
+
+        //Adds item unless the queue is full. Safe from any thread.
+        boolean offer(E item) {
+                if (item == null) {
+                        throw new NullPointerException();
+                }
+                for (;;) {
+                        long position = tail.get();
+                        int slot = (int) position & mask;
+                        long difference = sequences.get(slot) - position;
+                        if (difference == 0) {
+                                if (tail.compareAndSet(position, position + 1)) {
+                                        items.lazySet(slot, item);
+                                        sequences.set(slot, position + 1);
+                                        return true;
+                                }
+                        } else if (difference < 0) {
+                                return false;   //the consumer has not freed this slot yet
+                        }
+                        //else another producer took position; retry with the new tail
+                }
+        }
+
+        //Next item, or null if there is none. Consumer thread only.
+        E poll() {
+                long position = head;
+                int slot = (int) position & mask;
+                if (sequences.get(slot) != position + 1) {
+                        return null;
+                }
+                E item = items.get(slot);
+                items.lazySet(slot, null);
+                sequences.set(slot, position + mask + 1);
+                head = position + 1;
+                return item;
+        }
+
+        //Moves up to max items to target. Consumer thread only.
+        //Returns the number of items moved.
+        int drainTo(List<? super E> target, int max) {
+                int count = 0;
+                E item;
+                while (count < max && (item = poll()) != null) {
+                        target.add(item);
+                        count++;
+                }
+                return count;
+        }
+
+        //Number of items waiting; exact only when no thread is offering.
+        int size() {
+                long size = tail.get() - head;
+                return (int) Math.max(0, Math.min(size, capacity()));
+        }
+
+        boolean isEmpty() {
+                return size() == 0;
+        }
+}
@@ -0,0 +1,100 @@
+//Throughput benchmark for PricingEngine.
+//Prices every size and topping combination of the standard menu, once
+//with the engine's slice tables and once with one test per topping.
+//Then prices pizzas given as topping id lists against catalogs of
+//growing size, to show the cost follows the selected toppings only.
+//HOW TO COMPILE: javac PricingBench.java
+//HOW TO RUN: java PricingBench [rounds]
+
+import java.io.IOException;
+import java.util.Random;
+
+public class PricingBench {
+        static final long[] SIZES = {7550, 9550, 15050, 25000};
+
+        //One test per topping, as pizzaOrder.refreshPrice used to do.
+        static long naiveUnitPrice(int size, long toppings) {
+                long price = SIZES[size];
+                for (int i = 0; i < 18; i++) {
+                        if ((toppings & (1L << i)) != 0) {
+                                price += i < 9 ? 1025 : 2050;
+                        }
+                }
+                return price;
+        }
+
+        static final int PIZZAS = 1 << 20;
+        static final int SELECTED = 5;          //toppings per pizza
+
+        //A catalog of the given number of toppings, all in one category.
+        static ToppingCatalog syntheticCatalog(int toppingCount) {
+                String[] names = new String[toppingCount];
+                long[] prices = new long[toppingCount];
+                int[] categories = new int[toppingCount];
+                for (int i = 0; i < toppingCount; i++) {
+                        names[i] = "Topping " + (i + 1);
+                        prices[i] = 1000 + i % 1000;
+                }
+                return new ToppingCatalog(new String[] {"Regular"}, new long[] {SIZES[0]},
+                                names, prices, categories, new String[] {"Toppings"});
+        }
+
+        static void benchIds(int toppingCount, int rounds) {
+                PricingEngine engine = new PricingEngine(syntheticCatalog(toppingCount));
+                int[] toppings = new int[PIZZAS * SELECTED];
+                Random random = new Random(42);
+                for (int i = 0; i < toppings.length; i++) {
+                        toppings[i] = random.nextInt(toppingCount);
+                }
+
+                int[] pizza = new int[SELECTED];
+                for (int round = 0; round <= rounds; round++) {
+                        long sum = 0;
+                        long begin = System.nanoTime();
+                        for (int p = 0; p < PIZZAS; p++) {
+                                System.arraycopy(toppings, p * SELECTED, pizza, 0, SELECTED);
+                                sum += engine.unitPrice(0, pizza, SELECTED);
+                        }
+                        long end = System.nanoTime();
+                        if (round == rounds) {
+                                System.out.printf("ids, %,6d toppings: %,14.0f pizzas/sec (sum %s)%n",
+                                                toppingCount, PIZZAS / ((end - begin) / 1e9), Money.format(sum));
+                        }
+                }
+        }
+
+        public static void main(String[] args) throws IOException {
+                int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+                PricingEngine engine = PricingEngine.standardMenu();
+                long configurations = (long) SIZES.length << engine.toppingCount();
+
+                for (int round = 0; round <= rounds; round++) {
+                        long sum = 0, naiveSum = 0;
+
+                        long begin = System.nanoTime();
+                        for (int size = 0; size < SIZES.length; size++) {
+                                for (long mask = 0; mask < 1L << engine.toppingCount(); mask++) {
+                                        sum += engine.unitPrice(size, mask);
+                                }
+                        }
+                        long middle = System.nanoTime();
+                        for (int size = 0; size < SIZES.length; size++) {
+                                for (long mask = 0; mask < 1L << engine.toppingCount(); mask++) {
+                                        naiveSum += naiveUnitPrice(size, mask);
+                                }
+                        }
+                        long end = System.nanoTime();
+
+                        if (round == rounds) {  //earlier rounds are warm up
+                                System.out.printf("engine: %,14.0f configurations/sec (sum %s)%n",
+                                                configurations / ((middle - begin) / 1e9), Money.format(sum));
+                                System.out.printf("naive:  %,14.0f configurations/sec (sum %s)%n",
+                                                configurations / ((end - middle) / 1e9), Money.format(naiveSum));
+                        }
+                }
+
+                for (int toppingCount : new int[] {18, 1000, 100000}) {
+                        benchIds(toppingCount, rounds);
+                }
+        }
+}
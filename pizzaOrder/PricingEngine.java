@@ -0,0 +1,110 @@
+//Headless pricing for pizza orders, built from a ToppingCatalog.
+//A pizza is a size id plus its topping ids. Pricing a list of topping
+//ids costs one array read per selected topping, however large the
+//catalog is.
+//For catalogs of at most 64 toppings a pizza can also be given as a
+//bitmask (bit i set means topping i is on it). Topping sums are
+//precomputed for every value of each 8-bit slice of the mask, so
+//pricing it is one table lookup per 8 toppings.
+//All amounts are Money amounts, in centavos.
+
+import java.io.IOException;
+
+public class PricingEngine {
+        static final int TAX_BASIS_POINTS = 775;        //7.75%
+
+        static final int NO_SIZE = -1;          //no size selected yet
+
+        private static final int CHUNK_BITS = 8;
+        private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+        private final long[] sizePrices;
+        private final long[] toppingPrices;
+        private final long[][] chunkSums;     //chunkSums[c][bits]: price of the
+                                                //toppings c*8+i whose bit i is set,
+                                                //null if the toppings do not fit a mask
+
+        PricingEngine(ToppingCatalog catalog) {
+                this(catalog.sizePrices(), catalog.toppingPrices());
+        }
+
+        PricingEngine(long[] sizePrices, long[] toppingPrices) {
+                this.sizePrices = sizePrices.clone();
+                this.toppingPrices = toppingPrices.clone();
+
+                if (toppingPrices.length > 64) {
+                        chunkSums = null;
+                        return;
+                }
+                int chunks = (toppingPrices.length + CHUNK_BITS - 1) / CHUNK_BITS;
+                chunkSums = new long[chunks][1 << CHUNK_BITS];
+                for (int c = 0; c < chunks; c++) {
+                        for (int bits = 1; bits <= CHUNK_MASK; bits++) {
+                                int low = Integer.numberOfTrailingZeros(bits);
+                                int topping = c * CHUNK_BITS + low;
+                                long price = topping < toppingPrices.length
+                                                ? toppingPrices[topping] : 0;
+                                chunkSums[c][bits] = chunkSums[c][bits & (bits - 1)] + price;
+                        }
+                }
+        }
+
+        //The menu of the pizzaOrder form, from menu.txt.
+        static PricingEngine standardMenu() throws IOException {
+                return new PricingEngine(ToppingCatalog.standardMenu());
+        }
+
+        int sizeCount() {
+                return sizePrices.length;
+        }
+
+        int toppingCount() {
+                return toppingPrices.length;
+        }
+
+        long sizePrice(int size) {
+                return sizePrices[size];
+        }
+
+        long toppingPrice(int topping) {
+                return toppingPrices[topping];
+        }
+
+        //Price of one pizza of the given size and the first count
+        //topping ids of toppings.
+        long unitPrice(int size, int[] toppings, int count) {
+                long price = size == NO_SIZE ? 0 : sizePrices[size];
+                for (int i = 0; i < count; i++) {
+                        price += toppingPrices[toppings[i]];
+                }
+                return price;
+        }
+
+        //Price of one pizza of the given size and topping mask.
+        long unitPrice(int size, long toppings) {
+                if (chunkSums == null) {
+                        throw new IllegalStateException(toppingPrices.length
+                                        + " toppings do not fit a mask");
+                }
+                long price = size == NO_SIZE ? 0 : sizePrices[size];
+                for (int c = 0; c < chunkSums.length; c++) {
+                        price += chunkSums[c][(int) (toppings & CHUNK_MASK)];
+                        toppings >>>= CHUNK_BITS;
+                }
+                return price;
+        }
+
+        //Price before tax of quantity pizzas.
+        long subtotal(int size, long toppings, int quantity) {
+                return Money.times(unitPrice(size, toppings), quantity);
+        }
+
+        long subtotal(int size, int[] toppings, int count, int quantity) {
+                return Money.times(unitPrice(size, toppings, count), quantity);
+        }
+
+        //Tax on a subtotal, rounded to the centavo.
+        static long tax(long subtotal) {
+                return Money.percent(subtotal, TAX_BASIS_POINTS);
+        }
+}
@@ -0,0 +1,189 @@
+//Immutable menu of pizza sizes and toppings, read from a catalog file
+//(see menu.txt for the format). Sizes and toppings are numbered from 0
+//in file order; those numbers are the ids used by PricingEngine and by
+//the pizzaOrder form. Toppings are grouped in categories, numbered
+//from 0 in order of first appearance.
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+public final class ToppingCatalog {
+        static final String DEFAULT_FILE = "menu.txt";
+        static final String SIZE_CATEGORY = "size";
+
+        private final String[] sizeNames;
+        private final long[] sizePrices;
+        private final String[] toppingNames;
+        private final long[] toppingPrices;
+        private final int[] toppingCategories;
+        private final String[] categoryNames;
+        private final int[][] categoryToppings;         //ids of each category, in order
+        private final Map<String, Integer> sizeIds;     //lower case name -> id
+
+        ToppingCatalog(String[] sizeNames, long[] sizePrices, String[] toppingNames,
+                        long[] toppingPrices, int[] toppingCategories, String[] categoryNames) {
+                if (sizeNames.length != sizePrices.length || toppingNames.length != toppingPrices.length
+                                || toppingNames.length != toppingCategories.length) {
+                        throw new IllegalArgumentException("names and prices do not match");
+                }
+                this.sizeNames = sizeNames.clone();
+                this.sizePrices = sizePrices.clone();
+                this.toppingNames = toppingNames.clone();
+                this.toppingPrices = toppingPrices.clone();
+                this.toppingCategories = toppingCategories.clone();
+                this.categoryNames = categoryNames.clone();
+
+                int[] counts = new int[categoryNames.length];
+                for (int category : toppingCategories) {
+                        counts[category]++;
+                }
+                categoryToppings = new int[categoryNames.length][];
+                for (int c = 0; c < categoryNames.length; c++) {
+                        categoryToppings[c] = new int[counts[c]];
+                        counts[c] = 0;
+                }
+                for (int id = 0; id < toppingCategories.length; id++) {
+                        int c = toppingCategories[id];
+                        categoryToppings[c][counts[c]++] = id;
+                }
+
+                sizeIds = new HashMap<>();
+                for (int id = 0; id < sizeNames.length; id++) {
+                        sizeIds.put(sizeNames[id].toLowerCase(Locale.ROOT), id);
+                }
+        }
+
+        //Reads a catalog. Throws IOException naming the line of the first
+        //entry that cannot be read.
+        static ToppingCatalog read(BufferedReader in) throws IOException {
+                List<String> sizeNames = new ArrayList<>();
+                List<Long> sizePrices = new ArrayList<>();
+                List<String> toppingNames = new ArrayList<>();
+                List<Long> toppingPrices = new ArrayList<>();
+                List<Integer> toppingCategories = new ArrayList<>();
+                Map<String, Integer> categories = new LinkedHashMap<>();
+
+                String line;
+                int number = 0;
+                while ((line = in.readLine()) != null) {
+                        number++;
+                        line = line.trim();
+                        if (line.isEmpty() || line.startsWith("#")) {
+                                continue;
+                        }
+                        String[] fields = line.split("\\|", -1);
+                        if (fields.length != 3 || fields[0].trim().isEmpty() || fields[1].trim().isEmpty()) {
+                                throw new IOException("line " + number + ": expected category|name|price");
+                        }
+                        long price;
+                        try {
+                                price = Money.parse(fields[2]);
+                        } catch (NumberFormatException e) {
+                                throw new IOException("line " + number + ": " + e.getMessage());
+                        }
+                        if (price < 0) {
+                                throw new IOException("line " + number + ": negative price");
+                        }
+
+                        String category = fields[0].trim();
+                        if (category.equalsIgnoreCase(SIZE_CATEGORY)) {
+                                sizeNames.add(fields[1].trim());
+                                sizePrices.add(price);
+                        } else {
+                                Integer id = categories.get(category);
+                                if (id == null) {
+                                        id = categories.size();
+                                        categories.put(category, id);
+                                }
+                                toppingNames.add(fields[1].trim());
+                                toppingPrices.add(price);
+                                toppingCategories.add(id);
+                        }
+                }
+                if (sizeNames.isEmpty()) {
+                        throw new IOException("catalog has no sizes");
+                }
+
+                return new ToppingCatalog(sizeNames.toArray(new String[0]),
+                                sizePrices.stream().mapToLong(Long::longValue).toArray(),
+                                toppingNames.toArray(new String[0]),
+                                toppingPrices.stream().mapToLong(Long::longValue).toArray(),
+                                toppingCategories.stream().mapToInt(Integer::intValue).toArray(),
+                                categories.keySet().toArray(new String[0]));
+        }
+
+        static ToppingCatalog read(Path file) throws IOException {
+                try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                        return read(in);
+                }
+        }
+
+        //The menu.txt next to the classes, or else in the current directory.
+        static ToppingCatalog standardMenu() throws IOException {
+                InputStream resource = ToppingCatalog.class.getResourceAsStream(DEFAULT_FILE);
+                if (resource == null) {
+                        return read(Paths.get(DEFAULT_FILE));
+                }
+                try (BufferedReader in = new BufferedReader(
+                                new InputStreamReader(resource, StandardCharsets.UTF_8))) {
+                        return read(in);
+                }
+        }
+
+        int sizeCount() {
+                return sizeNames.length;
+        }
+
+        String sizeName(int size) {
+                return sizeNames[size];
+        }
+
+        long sizePrice(int size) {
+                return sizePrices[size];
+        }
+
+        //Id of the size with the given name, ignoring case, or -1.
+        int sizeId(String name) {
+                Integer id = sizeIds.get(name.trim().toLowerCase(Locale.ROOT));
+                return id == null ? -1 : id;
+        }
+
+        int toppingCount() {
+                return toppingNames.length;
+        }
+
+        String toppingName(int topping) {
+                return toppingNames[topping];
+        }
+
+        long toppingPrice(int topping) {
+                return toppingPrices[topping];
+        }
+
+        int toppingCategory(int topping) {
+                return toppingCategories[topping];
+        }
+
+        int categoryCount() {
+                return categoryNames.length;
+        }
+
+        String categoryName(int category) {
+                return categoryNames[category];
+        }
+
+        //Ids of the toppings of a category, in catalog order.
+        int[] toppingsIn(int category) {
+                return categoryToppings[category].clone();
+        }
+
+        long[] sizePrices() {
+                return sizePrices.clone();
+        }
+
+        long[] toppingPrices() {
+                return toppingPrices.clone();
+        }
+}